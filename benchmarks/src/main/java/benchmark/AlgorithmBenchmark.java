@@ -0,0 +1,70 @@
+package benchmark;
+
+import controller.BatchSolver;
+import controller.tsp.TSPAlgorithm;
+import controller.tsp.TSPTypes;
+import model.City;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks a full calculate of each TSP algorithm, as the first
+ * solve of a workspace: every invocation gets a fresh detached algorithm
+ * seeded with SEED, so its distance oracle is synced from scratch and its
+ * random choices repeat. TSP Pro and Lin-Kernighan are given
+ * TIME_BUDGET_MILLIS, so for them the time shows the work done outside the
+ * budget and the GC profiler the allocation rate of their search.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class AlgorithmBenchmark {
+
+    public static final long TIME_BUDGET_MILLIS = 1000;
+    public static final long SEED = 42;
+
+    @Param({"TSP_NEAREST_NBR", "TSP_CLUSTER", "TSP_CLUSTER_STITCHED", "TSP_TWO_OPT", "TSP_LIN_KERNIGHAN", "TSP_PRO", "TSP_PRO_PARALLEL"})
+    public TSPTypes algorithm;
+
+    @Param({"100", "1000", "10000"})
+    public int cities;
+
+    @Param({"UNIFORM", "CLUSTERED", "GRID"})
+    public Distribution distribution;
+
+    private List<City> cityList;
+    private TSPAlgorithm tspAlgorithm;
+
+    @Setup(Level.Trial)
+    public void setUpCities() {
+        cityList = distribution.cities(cities, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpAlgorithm() {
+        tspAlgorithm = BatchSolver.newAlgorithm(algorithm, TIME_BUDGET_MILLIS);
+        tspAlgorithm.detach();
+        tspAlgorithm.seed = SEED;
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopAlgorithm() {
+        tspAlgorithm.stop();
+    }
+
+    @Benchmark
+    public List<List<City>> calculate() {
+        tspAlgorithm.calculate(cityList);
+        return tspAlgorithm.getLastPath();
+    }
+
+}
@@ -0,0 +1,83 @@
+package benchmark;
+
+import controller.io.TSPLibFormat;
+import controller.tsp.DistanceMetric;
+import controller.tsp.GreatCircleMetric;
+import controller.tsp.TSPCity;
+import controller.tsp.TSPDistanceOracle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks measuring the distance between two cities with
+ * TSPCity.measureDistance by each metric, over PAIRS pairs of cities picked
+ * at random so the branch predictor cannot learn them.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DistanceBenchmark {
+
+    public static final int PAIRS = 1024;
+
+    /**
+     * The metrics a workspace can be measured with.
+     */
+    public enum Metric {
+        EUCLIDEAN, SQUARED_EUCLIDEAN, GREAT_CIRCLE
+    }
+
+    @Param({"EUCLIDEAN", "SQUARED_EUCLIDEAN", "GREAT_CIRCLE"})
+    public Metric metric;
+
+    @Param({"UNIFORM", "CLUSTERED", "GRID"})
+    public Distribution distribution;
+
+    private TSPCity[] from;
+    private TSPCity[] to;
+    private int next;
+
+    @Setup
+    public void setUp() {
+
+        TSPDistanceOracle oracle = new TSPDistanceOracle();
+        switch (metric) {
+            case SQUARED_EUCLIDEAN:
+                oracle.setMetric(DistanceMetric.SQUARED_EUCLIDEAN);
+                break;
+            case GREAT_CIRCLE:
+                oracle.setMetric(new GreatCircleMetric(TSPLibFormat.GEO_PIXELS_PER_DEGREE));
+                break;
+            default:
+                oracle.setMetric(DistanceMetric.EUCLIDEAN);
+        }
+
+        List<TSPCity> cities = oracle.sync(distribution.cities(PAIRS, 42));
+        Random random = new Random(7);
+        this.from = new TSPCity[PAIRS];
+        this.to = new TSPCity[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            from[i] = cities.get(random.nextInt(PAIRS));
+            to[i] = cities.get(random.nextInt(PAIRS));
+        }
+
+    }
+
+    @Benchmark
+    public double measureDistance() {
+        int i = next;
+        next = (i + 1) & (PAIRS - 1);
+        return from[i].measureDistance(to[i]);
+    }
+
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import controller.io.CityStyle;
+import model.City;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This enum holds the ways benchmark cities are spread over a workspace of
+ * WIDTH by HEIGHT pixels. The same count, distribution and seed always give
+ * the same cities.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public enum Distribution {
+
+    UNIFORM,
+    CLUSTERED,
+    GRID;
+
+    public static final int WIDTH = 1560;
+    public static final int HEIGHT = 840;
+    public static final int CLUSTER_COUNT = 12;
+    public static final double CLUSTER_SPREAD = 40;
+
+    private static final CityStyle STYLE = new CityStyle(City.minSize, Color.RED, null, null);
+
+    /**
+     * Creates cities spread this way.
+     *
+     * @param count The number of cities
+     * @param seed  The seed of the positions
+     * @return the cities
+     */
+    public List<City> cities(int count, long seed) {
+
+        Random random = new Random(seed);
+        List<City> cities = new ArrayList<>(count);
+
+        switch (this) {
+            case CLUSTERED:
+                int[] centerXs = new int[CLUSTER_COUNT], centerYs = new int[CLUSTER_COUNT];
+                for (int i = 0; i < CLUSTER_COUNT; i++) {
+                    centerXs[i] = random.nextInt(WIDTH);
+                    centerYs[i] = random.nextInt(HEIGHT);
+                }
+                for (int i = 0; i < count; i++) {
+                    int cluster = random.nextInt(CLUSTER_COUNT);
+                    int x = clamp(centerXs[cluster] + (int) (random.nextGaussian() * CLUSTER_SPREAD), WIDTH);
+                    int y = clamp(centerYs[cluster] + (int) (random.nextGaussian() * CLUSTER_SPREAD), HEIGHT);
+                    cities.add(STYLE.createCity("c" + i, x, y));
+                }
+                break;
+            case GRID:
+                int columns = (int) Math.ceil(Math.sqrt(count * (double) WIDTH / HEIGHT));
+                int rows = (count + columns - 1) / columns;
+                for (int i = 0; i < count; i++) {
+                    int x = (int) ((i % columns + 0.5) * WIDTH / columns);
+                    int y = (int) ((i / columns + 0.5) * HEIGHT / rows);
+                    cities.add(STYLE.createCity("c" + i, x, y));
+                }
+                break;
+            default:
+                for (int i = 0; i < count; i++) {
+                    cities.add(STYLE.createCity("c" + i, random.nextInt(WIDTH), random.nextInt(HEIGHT)));
+                }
+        }
+
+        return cities;
+
+    }
+
+    private static int clamp(int value, int limit) {
+        return Math.max(0, Math.min(limit - 1, value));
+    }
+
+}
@@ -0,0 +1,155 @@
+package benchmark;
+
+import controller.io.CityStyle;
+import controller.io.TSPLibFormat;
+import controller.tsp.DistanceMetric;
+import controller.tsp.GreatCircleMetric;
+import controller.tsp.TSPCity;
+import controller.tsp.TSPDistanceOracle;
+import controller.tsp.TSPNearestNbr;
+import model.City;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class checks that the nearest neighbour tour served from the k-d tree is
+ * the tour of the linear scan it replaced, which measures the distance from the
+ * last city to every unvisited one with the oracle and keeps the first closest.
+ * Random workspaces of up to MAX_CITIES cities are solved both ways, with the
+ * Euclidean and the great-circle metric, and with the cities squeezed into
+ * squares of each of SPREADS pixels, the smallest making most distances tie.
+ * It exits with 1 if any tour differs:
+ * java -cp target/benchmarks.jar benchmark.NearestNbrCheck -n 200 -s 42
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class NearestNbrCheck {
+
+    public static final int MAX_CITIES = 300;
+    public static final int[] SPREADS = {4, 32, Distribution.HEIGHT};
+
+    private static final String USAGE = "Usage: java benchmark.NearestNbrCheck [-n inputs] [-s seed]";
+    private static final CityStyle STYLE = new CityStyle(City.minSize, Color.RED, null, null);
+
+    /**
+     * Orders the cities by scanning every unvisited city for the closest one,
+     * as the nearest neighbour tour did before the k-d tree.
+     *
+     * @param tspCities The cities to visit
+     * @param oracle    The oracle the cities were synced with
+     * @return The cities in visiting order
+     */
+    public static List<TSPCity> scanTour(List<TSPCity> tspCities, TSPDistanceOracle oracle) {
+
+        List<TSPCity> connections = new ArrayList<>();
+        if (tspCities.isEmpty()) return connections;
+
+        boolean[] visited = new boolean[tspCities.size()];
+        int prevCityIndex = 0;
+        connections.add(tspCities.get(0));
+        visited[0] = true;
+
+        for (int visitedCount = 1; visitedCount < tspCities.size(); visitedCount++) {
+            int closestNbrIndex = -1;
+            double minDistance = Double.MAX_VALUE;
+            TSPCity prevCity = tspCities.get(prevCityIndex);
+            for (int i = 0; i < tspCities.size(); i++) {
+                if (visited[i]) continue;
+                double distance = oracle.distance(prevCity, tspCities.get(i));
+                if (distance < minDistance) {
+                    minDistance = distance;
+                    closestNbrIndex = i;
+                }
+            }
+            connections.add(tspCities.get(closestNbrIndex));
+            visited[closestNbrIndex] = true;
+            prevCityIndex = closestNbrIndex;
+        }
+        return connections;
+
+    }
+
+    /**
+     * Solves one random workspace both ways.
+     *
+     * @param random The source of the cities
+     * @param spread The side of the square the cities are placed in, in pixels
+     * @param metric The metric to measure with
+     * @return the position where the tours first differ, -1 if they are the same
+     */
+    public static int check(Random random, int spread, DistanceMetric metric) {
+
+        int count = 1 + random.nextInt(MAX_CITIES);
+        List<City> cities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cities.add(STYLE.createCity("c" + i, random.nextInt(spread), random.nextInt(spread)));
+        }
+
+        TSPDistanceOracle oracle = new TSPDistanceOracle();
+        oracle.setMetric(metric);
+        List<TSPCity> tspCities = oracle.sync(cities);
+        List<TSPCity> expected = scanTour(tspCities, oracle);
+        List<TSPCity> actual = TSPNearestNbr.nearestNeighbourTour(tspCities);
+
+        for (int i = 0; i < count; i++) {
+            if (i >= actual.size() || expected.get(i) != actual.get(i)) return i;
+        }
+        return actual.size() == count ? -1 : count;
+
+    }
+
+    /**
+     * Runs the check and exits with 1 if any tour differs.
+     *
+     * @param args The options
+     */
+    public static void main(String[] args) {
+
+        if (System.getProperty("java.awt.headless") == null) System.setProperty("java.awt.headless", "true");
+
+        int inputs = 200;
+        long seed = 42;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-n":
+                        inputs = Integer.parseInt(args[++i]);
+                        break;
+                    case "-s":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        DistanceMetric[] metrics = {DistanceMetric.EUCLIDEAN,
+                new GreatCircleMetric(TSPLibFormat.GEO_PIXELS_PER_DEGREE)};
+        Random random = new Random(seed);
+        int failures = 0;
+        for (int k = 0; k < inputs; k++) {
+            int spread = SPREADS[k % SPREADS.length];
+            DistanceMetric metric = metrics[k / SPREADS.length % metrics.length];
+            int difference = check(random, spread, metric);
+            if (difference >= 0) {
+                failures++;
+                System.out.printf("Input %d (%s, %d px): tours differ at position %d%n", k,
+                        metric.getClass().getSimpleName(), spread, difference);
+            }
+        }
+
+        System.out.println(failures == 0 ? "All " + inputs + " tours match the scan" : failures + " tours differ");
+        System.exit(failures == 0 ? 0 : 1);
+
+    }
+
+}
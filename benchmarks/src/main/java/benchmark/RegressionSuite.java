@@ -0,0 +1,363 @@
+package benchmark;
+
+import controller.BatchSolver;
+import controller.io.TSPLibFormat;
+import controller.io.TSPLibInstance;
+import controller.tsp.TSPAlgorithm;
+import controller.tsp.TSPTypes;
+import model.City;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class checks that the TSP algorithms neither get slower nor find longer
+ * tours. Every algorithm solves a fixed corpus, seeded with SEED: generated
+ * instances of every distribution at each of SIZES cities, and the TSPLIB
+ * instances in the corpus directory. Tours are measured the TSPLIB way, so the
+ * lengths do not depend on the machine. Each solve is warmed up and then
+ * repeated, keeping the shortest time and the longest tour, and the results
+ * are compared with the baseline file. A run is a regression if its tour is
+ * longer than the baseline's by more than the length tolerance, if it is
+ * missing from the baseline, or if its time is longer by more than the time
+ * tolerance and TIME_SLACK_MILLIS. The time is not checked for the FIXED_BUDGET
+ * algorithms, which run for their whole time budget by design, while a single
+ * TSP Pro chain stops once it has cooled, well within its budget. The TSP Pro
+ * algorithms anneal the nearest neighbour tour, so it is also a regression if
+ * one of them finds no shorter tour than nearest neighbour does, which is what
+ * happens when the annealing temperatures do not fit the distances.
+ * The baseline and corpus committed next to this module are used from its
+ * directory, and a missing baseline fails the run unless --record is given:
+ * java -cp target/benchmarks.jar benchmark.RegressionSuite -b baseline.csv -c corpus
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class RegressionSuite {
+
+    public static final int[] SIZES = {100, 1000, 5000};
+    public static final long SEED = 42;
+    public static final long TIME_SLACK_MILLIS = 20;
+    public static final Set<TSPTypes> ANNEALING = EnumSet.of(TSPTypes.TSP_PRO, TSPTypes.TSP_PRO_PARALLEL);
+    public static final Set<TSPTypes> FIXED_BUDGET = EnumSet.of(TSPTypes.TSP_PRO_PARALLEL, TSPTypes.TSP_LIN_KERNIGHAN);
+
+    private static final String HEADER = "instance,algorithm,cities,length,millis";
+    private static final String USAGE = "Usage: java benchmark.RegressionSuite [-b baseline file] [-o results file]"
+            + " [-c corpus directory] [-a algorithm,...] [-t time budget ms] [-q length tolerance]"
+            + " [-w time tolerance] [-u warm-ups] [-n repeats] [-r | --record]\n"
+            + "--record records the results as the new baseline. Tolerances are fractions, 0.01 for 1%.";
+
+    public Set<TSPTypes> algorithms = EnumSet.complementOf(EnumSet.of(TSPTypes.USER_CONNECT));
+    public long timeBudgetMillis = 1000;
+    public double lengthTolerance = 0.01;
+    public double timeTolerance = 0.5;
+    public int warmups = 1;
+    public int repeats = 3;
+
+    /**
+     * This class holds the outcome of an algorithm on an instance.
+     */
+    public static class Result {
+
+        public final String instance;
+        public final TSPTypes algorithm;
+        public final int cities;
+        public final long length;
+        public final long millis;
+
+        public Result(String instance, TSPTypes algorithm, int cities, long length, long millis) {
+            this.instance = instance;
+            this.algorithm = algorithm;
+            this.cities = cities;
+            this.length = length;
+            this.millis = millis;
+        }
+
+        String key() {
+            return instance + "," + algorithm;
+        }
+
+        String toCsv() {
+            return instance + "," + algorithm + "," + cities + "," + length + "," + millis;
+        }
+
+    }
+
+    /**
+     * Builds the corpus: the generated instances and the TSPLIB instances in a directory.
+     *
+     * @param corpusDir The directory of .tsp files, null or missing for none
+     * @return the instances
+     * @throws IOException if a TSPLIB instance cannot be read
+     */
+    public static List<TSPLibInstance> corpus(Path corpusDir) throws IOException {
+
+        List<TSPLibInstance> instances = new ArrayList<>();
+        for (Distribution distribution : Distribution.values()) {
+            for (int size : SIZES) {
+                instances.add(generated(distribution.name().toLowerCase(Locale.ROOT) + "-" + size,
+                        distribution.cities(size, SEED)));
+            }
+        }
+
+        if (corpusDir != null && Files.isDirectory(corpusDir)) {
+            List<Path> files = new ArrayList<>();
+            String glob = "*" + TSPLibFormat.TSP_EXTENSION;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(corpusDir, glob)) {
+                for (Path file : stream) files.add(file);
+            }
+            files.sort(null);
+            for (Path file : files) instances.add(TSPLibFormat.read(file));
+        }
+        return instances;
+
+    }
+
+    /**
+     * Makes an EUC_2D instance of generated cities, numbered from 1.
+     */
+    private static TSPLibInstance generated(String name, List<City> cities) {
+
+        int n = cities.size();
+        int[] ids = new int[n];
+        double[] xs = new double[n], ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+            xs[i] = cities.get(i).bounds.x;
+            ys[i] = cities.get(i).bounds.y;
+        }
+        return new TSPLibInstance(name, TSPLibInstance.EUC_2D, ids, xs, ys, cities);
+
+    }
+
+    /**
+     * Solves an instance with an algorithm, warmups times untimed and then repeats times.
+     *
+     * @param instance  The instance to solve
+     * @param algorithm The type of algorithm
+     * @return the shortest time and the longest tour of the repeats
+     * @throws IllegalStateException if the algorithm does not visit every city once
+     */
+    public Result solve(TSPLibInstance instance, TSPTypes algorithm) {
+
+        long length = 0, millis = Long.MAX_VALUE;
+        for (int k = -warmups; k < repeats; k++) {
+            TSPAlgorithm tspAlgorithm = BatchSolver.newAlgorithm(algorithm, timeBudgetMillis);
+            tspAlgorithm.detach();
+            tspAlgorithm.seed = SEED;
+            tspAlgorithm.oracle.setMetric(instance.metric());
+
+            long start = System.nanoTime();
+            try {
+                tspAlgorithm.calculate(instance.cities);
+            } finally {
+                tspAlgorithm.stop();
+            }
+            if (k >= 0) millis = Math.min(millis, (System.nanoTime() - start) / 1000000);
+
+            List<City> tour = new ArrayList<>(instance.cities.size());
+            for (List<City> cluster : tspAlgorithm.getLastPath()) tour.addAll(cluster);
+            boolean[] visited = new boolean[instance.cities.size()];
+            for (City city : tour) {
+                int index = instance.indexOf(city);
+                if (index < 0 || visited[index]) throw new IllegalStateException(algorithm + " revisits a city");
+                visited[index] = true;
+            }
+            if (tour.size() != visited.length) throw new IllegalStateException(algorithm + " misses cities");
+            length = Math.max(length, instance.tourLength(tour));
+        }
+        return new Result(instance.name, algorithm, instance.cities.size(), length, millis);
+
+    }
+
+    /**
+     * Checks a result against its baseline and, for a TSP Pro algorithm,
+     * against the nearest neighbour tour it starts from.
+     *
+     * @param result     The result
+     * @param baseline   The baseline result, null if it is missing from the baseline
+     * @param nearestNbr The nearest neighbour result on the same instance, null to skip that check
+     * @return what got worse, null if nothing did
+     */
+    public String regression(Result result, Result baseline, Result nearestNbr) {
+
+        List<String> worse = new ArrayList<>();
+        if (nearestNbr != null && ANNEALING.contains(result.algorithm) && result.length >= nearestNbr.length) {
+            worse.add("no shorter than nearest neighbour's " + nearestNbr.length);
+        }
+        if (baseline == null) {
+            worse.add("missing from the baseline");
+            return String.join(", ", worse);
+        }
+        if (result.length > baseline.length * (1 + lengthTolerance)) {
+            worse.add("length " + baseline.length + " -> " + result.length);
+        }
+        if (!FIXED_BUDGET.contains(result.algorithm)
+                && result.millis > baseline.millis * (1 + timeTolerance) + TIME_SLACK_MILLIS) {
+            worse.add("time " + baseline.millis + " ms -> " + result.millis + " ms");
+        }
+        return worse.isEmpty() ? null : String.join(", ", worse);
+
+    }
+
+    /**
+     * Reads a results file.
+     *
+     * @param file The file written by writeResults
+     * @return the results by instance and algorithm
+     * @throws IOException if the file cannot be read or is not a results file
+     */
+    public static Map<String, Result> readResults(Path file) throws IOException {
+
+        Map<String, Result> results = new HashMap<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            if (line.trim().isEmpty()) continue;
+            String[] fields = line.split(",");
+            try {
+                Result result = new Result(fields[0], TSPTypes.valueOf(fields[1]), Integer.parseInt(fields[2]),
+                        Long.parseLong(fields[3]), Long.parseLong(fields[4]));
+                results.put(result.key(), result);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Invalid result in " + file + ": " + line, e);
+            }
+        }
+        return results;
+
+    }
+
+    /**
+     * Writes results, one line per instance and algorithm.
+     *
+     * @param file    The file to write
+     * @param results The results
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeResults(Path file, List<Result> results) throws IOException {
+
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (Result result : results) lines.add(result.toCsv());
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+    }
+
+    /**
+     * Runs the suite and exits with 1 if anything regressed.
+     *
+     * @param args The options
+     * @throws IOException if the corpus, the baseline or the results cannot be used
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (System.getProperty("java.awt.headless") == null) System.setProperty("java.awt.headless", "true");
+
+        RegressionSuite suite = new RegressionSuite();
+        Path baselineFile = Paths.get("baseline.csv");
+        Path resultsFile = Paths.get("regression.csv");
+        Path corpusDir = Paths.get("corpus");
+        boolean record = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-b":
+                        baselineFile = Paths.get(args[++i]);
+                        break;
+                    case "-o":
+                        resultsFile = Paths.get(args[++i]);
+                        break;
+                    case "-c":
+                        corpusDir = Paths.get(args[++i]);
+                        break;
+                    case "-a":
+                        suite.algorithms = EnumSet.noneOf(TSPTypes.class);
+                        for (String name : args[++i].split(",")) {
+                            suite.algorithms.add(TSPTypes.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                        }
+                        break;
+                    case "-t":
+                        suite.timeBudgetMillis = Long.parseLong(args[++i]);
+                        break;
+                    case "-q":
+                        suite.lengthTolerance = Double.parseDouble(args[++i]);
+                        break;
+                    case "-w":
+                        suite.timeTolerance = Double.parseDouble(args[++i]);
+                        break;
+                    case "-u":
+                        suite.warmups = Integer.parseInt(args[++i]);
+                        break;
+                    case "-n":
+                        suite.repeats = Integer.parseInt(args[++i]);
+                        break;
+                    case "-r":
+                    case "--record":
+                        record = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (suite.algorithms.contains(TSPTypes.USER_CONNECT) || suite.repeats < 1 || suite.warmups < 0) {
+                throw new IllegalArgumentException();
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        if (!record && !Files.exists(baselineFile)) {
+            System.err.println("No baseline at " + baselineFile + ", run with --record to record one");
+            System.exit(2);
+        }
+        Map<String, Result> baseline = record ? new HashMap<>() : readResults(baselineFile);
+
+        List<Result> results = new ArrayList<>();
+        int regressions = 0;
+        for (TSPLibInstance instance : corpus(corpusDir)) {
+            Result nearestNbr = null;
+            for (TSPTypes algorithm : suite.algorithms) {
+                if (ANNEALING.contains(algorithm) && nearestNbr == null) {
+                    nearestNbr = suite.solve(instance, TSPTypes.TSP_NEAREST_NBR);
+                }
+                Result result = suite.solve(instance, algorithm);
+                if (algorithm == TSPTypes.TSP_NEAREST_NBR) nearestNbr = result;
+                results.add(result);
+                //a result being recorded is its own baseline, so only the nearest neighbour check applies
+                Result base = record ? result : baseline.get(result.key());
+                String regression = suite.regression(result, base, nearestNbr);
+                if (regression != null) regressions++;
+
+                System.out.printf(Locale.ROOT, "%-16s %-18s %8d %8d ms  %s%n", result.instance, result.algorithm,
+                        result.length, result.millis,
+                        regression != null ? "REGRESSED: " + regression : record ? "recorded" : "ok");
+            }
+        }
+
+        writeResults(resultsFile, results);
+        if (record) {
+            writeResults(baselineFile, results);
+            System.out.println("Recorded the baseline in " + baselineFile);
+        }
+
+        System.out.println(regressions == 0 ? "No regressions" : regressions + " regressions");
+        System.exit(regressions == 0 ? 0 : 1);
+
+    }
+
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import model.cityshapes.Circle;
+import model.cityshapes.HollowPlus;
+import model.cityshapes.ShapeComponent;
+import model.cityshapes.Square;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the hit test of each city shape, containsPoint, on
+ * POINTS points around the shape, about half of them inside it.
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-11-15
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ShapeBenchmark {
+
+    public static final int POINTS = 1024;
+    public static final int X = 500;
+    public static final int Y = 500;
+    public static final int SIZE = 40;
+
+    /**
+     * The shapes a city can have.
+     */
+    public enum Shape {
+        CIRCLE, SQUARE, HOLLOW_PLUS
+    }
+
+    @Param({"CIRCLE", "SQUARE", "HOLLOW_PLUS"})
+    public Shape shape;
+
+    private ShapeComponent component;
+    private int[] xs;
+    private int[] ys;
+    private int next;
+
+    @Setup
+    public void setUp() {
+
+        switch (shape) {
+            case SQUARE:
+                component = new Square(X, Y, SIZE, Color.RED);
+                break;
+            case HOLLOW_PLUS:
+                component = new HollowPlus(X, Y, SIZE, Color.RED);
+                break;
+            default:
+                component = new Circle(X, Y, SIZE, Color.RED);
+        }
+
+        Random random = new Random(42);
+        xs = new int[POINTS];
+        ys = new int[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = X - 2 * SIZE + random.nextInt(5 * SIZE);
+            ys[i] = Y - 2 * SIZE + random.nextInt(5 * SIZE);
+        }
+
+    }
+
+    @Benchmark
+    public boolean containsPoint() {
+        int i = next;
+        next = (i + 1) & (POINTS - 1);
+        return component.containsPoint(xs[i], ys[i]);
+    }
+
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import controller.io.TSPLibFormat;
+import controller.tsp.DistanceMetric;
+import controller.tsp.GreatCircleMetric;
+import controller.tsp.TSPDistanceOracle;
+import controller.tsp.TSPNearestNbr;
+import controller.tsp.TSPRoute;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks evaluating a tour with TSPRoute.getTotalDistance.
+ * The tour is the nearest neighbour tour of the cities. Euclidean distances
+ * are computed from the route's own copy of the coordinates, while
+ * great-circle distances come from a distance oracle of its own, from the
+ * matrix up to TSPDistanceOracle.MATRIX_THRESHOLD cities and the pair cache
+ * beyond.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TourBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int cities;
+
+    @Param({"UNIFORM", "CLUSTERED", "GRID"})
+    public Distribution distribution;
+
+    @Param({"EUCLIDEAN", "GREAT_CIRCLE"})
+    public DistanceBenchmark.Metric metric;
+
+    private TSPRoute route;
+
+    @Setup
+    public void setUp() {
+        TSPDistanceOracle oracle = new TSPDistanceOracle();
+        oracle.setMetric(metric == DistanceBenchmark.Metric.GREAT_CIRCLE
+                ? new GreatCircleMetric(TSPLibFormat.GEO_PIXELS_PER_DEGREE) : DistanceMetric.EUCLIDEAN);
+        route = new TSPRoute(TSPNearestNbr.nearestNeighbourTour(oracle.sync(distribution.cities(cities, 42))));
+    }
+
+    @Benchmark
+    public double getTotalDistance() {
+        return route.getTotalDistance();
+    }
+
+}
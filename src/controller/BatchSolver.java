@@ -0,0 +1,309 @@
+package controller;
+
+import controller.io.TSPLibFormat;
+import controller.io.TSPLibInstance;
+import controller.io.WorkspaceData;
+import controller.io.WorkspaceFiles;
+import controller.tsp.*;
+import model.City;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class solves workspace files from the command line, without a display.
+ * Every file is solved by a detached TSP algorithm of its own, and the files
+ * are solved in parallel on a fixed number of threads. Each tour is written to
+ * the output directory, a .tour file for a TSPLIB instance and a workspace of
+ * the input's format otherwise, and the timings of all runs to timings.csv.
+ * Every run is seeded with the same seed, so a batch can be repeated:
+ * java controller.BatchSolver -a TSP_LIN_KERNIGHAN -o out a.tsp b.txt c.tspw
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class BatchSolver {
+
+    public static final String TIMINGS_FILE = "timings.csv";
+    public static final String TOUR_SUFFIX = ".tour";
+    public static final long DEFAULT_SEED = 1;
+
+    private static final String USAGE = "Usage: java controller.BatchSolver [-a algorithm] [-o output directory]"
+            + " [-j threads] [-t time budget ms] [-s seed] <workspace file>...\n"
+            + "Algorithms: TSP_NEAREST_NBR (default), TSP_PRO, TSP_PRO_PARALLEL, TSP_CLUSTER,"
+            + " TSP_CLUSTER_STITCHED, TSP_TWO_OPT, TSP_LIN_KERNIGHAN";
+
+    public final TSPTypes type;
+    public final Path outputDir;
+    public final long timeBudgetMillis;
+    public final long seed;
+
+    /**
+     * Creates a batch solver.
+     *
+     * @param type             The TSP algorithm to solve with, any but USER_CONNECT
+     * @param outputDir        The directory to write the tours and timings to
+     * @param timeBudgetMillis How long TSP Pro and Lin-Kernighan may run for, 0 for their default
+     * @param seed             The seed of every run
+     */
+    public BatchSolver(TSPTypes type, Path outputDir, long timeBudgetMillis, long seed) {
+
+        if (type == TSPTypes.USER_CONNECT) throw new IllegalArgumentException("User connect needs a user");
+        this.type = type;
+        this.outputDir = outputDir;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.seed = seed;
+
+    }
+
+    /**
+     * This class holds the outcome of solving one file.
+     */
+    public static class Run {
+
+        public final Path file;
+        public int cities;
+        public long readMillis;
+        public long solveMillis;
+        public double length;
+        public Path tour;
+        public String error;
+
+        Run(Path file) {
+            this.file = file;
+        }
+
+    }
+
+    /**
+     * Solves every file on the given number of threads and writes the timings.
+     * A file that fails is reported in its run and does not stop the others.
+     *
+     * @param files   The workspace files to solve
+     * @param threads The number of files solved at once
+     * @return the runs, in the order of the files
+     * @throws IOException if the output directory or the timings cannot be written
+     */
+    public List<Run> solveAll(List<Path> files, int threads) throws IOException {
+
+        Files.createDirectories(outputDir);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        List<Future<Run>> futures = new ArrayList<>();
+        for (Path file : files) futures.add(executor.submit(() -> solve(file)));
+
+        List<Run> runs = new ArrayList<>();
+        try {
+            for (Future<Run> future : futures) {
+                try {
+                    runs.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        writeTimings(runs);
+        return runs;
+
+    }
+
+    /**
+     * Reads a file, solves it, measures the tour and writes it out.
+     *
+     * @param file The workspace file to solve
+     * @return the run, holding the error if the file could not be solved
+     */
+    public Run solve(Path file) {
+
+        Run run = new Run(file);
+        try {
+            long start = System.nanoTime();
+            boolean tspLib = file.toString().toLowerCase().endsWith(TSPLibFormat.TSP_EXTENSION);
+            TSPLibInstance instance = tspLib ? TSPLibFormat.read(file) : null;
+            WorkspaceData data = tspLib ? null : WorkspaceFiles.read(file);
+            List<City> cities = tspLib ? instance.cities : data.cities;
+            run.cities = cities.size();
+            run.readMillis = (System.nanoTime() - start) / 1000000;
+
+            TSPAlgorithm algorithm = newAlgorithm(type, timeBudgetMillis);
+            algorithm.detach();
+            algorithm.seed = seed;
+            algorithm.oracle.setMetric(tspLib ? instance.metric() : data.metric);
+            start = System.nanoTime();
+            try {
+                algorithm.calculate(cities);
+            } finally {
+                //TSP Pro parallel would keep a pool of threads per file until they time out
+                algorithm.stop();
+            }
+            run.solveMillis = (System.nanoTime() - start) / 1000000;
+
+            List<City> tour = new ArrayList<>(cities.size());
+            List<List<City>> path = algorithm.getLastPath() != null ? algorithm.getLastPath() : Collections.emptyList();
+            for (List<City> cluster : path) tour.addAll(cluster);
+            run.length = tspLib ? instance.tourLength(tour)
+                    : new TSPRoute(algorithm.oracle.sync(tour)).getTotalDistance();
+
+            String name = file.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            String base = dot > 0 ? name.substring(0, dot) : name;
+            run.tour = outputDir.resolve(tspLib ? base + TSPLibFormat.TOUR_EXTENSION
+                    : base + TOUR_SUFFIX + name.substring(dot > 0 ? dot : name.length()));
+            List<List<City>> solved = new ArrayList<>();
+            solved.add(tour);
+            WorkspaceFiles.write(run.tour, tspLib ? new WorkspaceData(getTspName(), solved)
+                    : new WorkspaceData(getTspName(), solved, data.metric));
+        } catch (IOException | RuntimeException e) {
+            run.error = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        return run;
+
+    }
+
+    /**
+     * Creates a TSP algorithm of a type, as the app does.
+     *
+     * @param type             The type of TSP algorithm, any but USER_CONNECT
+     * @param timeBudgetMillis How long TSP Pro and Lin-Kernighan may run for, 0 for their default
+     * @return the algorithm
+     */
+    public static TSPAlgorithm newAlgorithm(TSPTypes type, long timeBudgetMillis) {
+
+        switch (type) {
+            case TSP_PRO:
+            case TSP_PRO_PARALLEL:
+                TSPPro pro = type == TSPTypes.TSP_PRO ? new TSPPro()
+                        : new TSPPro(TSPPro.parallelReplicas());
+                if (timeBudgetMillis > 0) pro.timeBudgetMillis = timeBudgetMillis;
+                return pro;
+            case TSP_CLUSTER:
+                return new TSPCluster();
+            case TSP_CLUSTER_STITCHED:
+                return new TSPCluster(true);
+            case TSP_TWO_OPT:
+                return new TSPTwoOpt();
+            case TSP_LIN_KERNIGHAN:
+                return timeBudgetMillis > 0 ? new TSPLinKernighan(timeBudgetMillis) : new TSPLinKernighan();
+            default:
+                return new TSPNearestNbr();
+        }
+
+    }
+
+    private String getTspName() {
+
+        switch (type) {
+            case TSP_PRO:
+                return TSPPro.name;
+            case TSP_PRO_PARALLEL:
+                return TSPPro.parallelName;
+            case TSP_CLUSTER:
+                return TSPCluster.name;
+            case TSP_CLUSTER_STITCHED:
+                return TSPCluster.stitchedName;
+            case TSP_TWO_OPT:
+                return TSPTwoOpt.name;
+            case TSP_LIN_KERNIGHAN:
+                return TSPLinKernighan.name;
+            default:
+                return TSPNearestNbr.name;
+        }
+
+    }
+
+    private void writeTimings(List<Run> runs) throws IOException {
+
+        List<String> lines = new ArrayList<>();
+        lines.add("file,algorithm,seed,cities,read_ms,solve_ms,length,error");
+        for (Run run : runs) {
+            lines.add(csv(run.file.toString()) + "," + type + "," + seed + "," + run.cities + "," + run.readMillis + ","
+                    + run.solveMillis + "," + (run.error == null ? String.format(Locale.ROOT, "%.3f", run.length) : "")
+                    + "," + (run.error == null ? "" : csv(run.error)));
+        }
+        Files.write(outputDir.resolve(TIMINGS_FILE), lines, StandardCharsets.UTF_8);
+
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Solves the workspace files named on the command line.
+     *
+     * @param args The options and the files to solve
+     * @throws IOException if the output cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (System.getProperty("java.awt.headless") == null) System.setProperty("java.awt.headless", "true");
+
+        TSPTypes type = TSPTypes.TSP_NEAREST_NBR;
+        Path outputDir = Paths.get(".");
+        int threads = Runtime.getRuntime().availableProcessors();
+        long timeBudgetMillis = 0;
+        long seed = DEFAULT_SEED;
+        List<Path> files = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-a":
+                        type = TSPTypes.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                        break;
+                    case "-o":
+                        outputDir = Paths.get(args[++i]);
+                        break;
+                    case "-j":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "-t":
+                        timeBudgetMillis = Long.parseLong(args[++i]);
+                        break;
+                    case "-s":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        files.add(Paths.get(args[i]));
+                }
+            }
+            if (files.isEmpty() || type == TSPTypes.USER_CONNECT || threads < 1) throw new IllegalArgumentException();
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        List<Run> runs = new BatchSolver(type, outputDir, timeBudgetMillis, seed).solveAll(files, threads);
+        int failed = 0;
+        for (Run run : runs) {
+            if (run.error != null) {
+                failed++;
+                System.err.printf("%s: %s%n", run.file, run.error);
+            } else {
+                System.out.printf(Locale.ROOT, "%s: %d cities, length %.3f, read %d ms, solved %d ms%n", run.file,
+                        run.cities, run.length, run.readMillis, run.solveMillis);
+            }
+        }
+        System.exit(failed > 0 ? 1 : 0);
+
+    }
+
+}
@@ -1,12 +1,15 @@
 package controller;
 
-import view.App;
-
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
- * This class holds the routing information between cities.
+ * This singleton class logs the app's messages. It keeps the latest few and
+ * hands each one to an output, which the app sets to show it in its status
+ * bar on the event dispatch thread. Until an output is set, as when running
+ * headless, messages are shown nowhere. Logging is synchronized, so solver
+ * threads may log at once and their messages reach the output one at a time.
  *
  * @author Shashi Varan Reddy (ID: 1222911911, saloor@asu.edu)
  * @version 1.0
@@ -16,12 +19,15 @@ public class Logger {
 
     private static Logger _instance;
     private final List<String> messages;
+    private volatile Consumer<String> output;
 
     private Logger() {
         this.messages = new ArrayList<>();
+        this.output = message -> {
+        };
     }
 
-    public static Logger getInstance() {
+    public static synchronized Logger getInstance() {
 
         if (_instance == null) {
             _instance = new Logger();
@@ -30,13 +36,22 @@ public class Logger {
         return _instance;
     }
 
-    public void log(String message) {
+    /**
+     * Sets where the messages are shown.
+     *
+     * @param output Shows a message
+     */
+    public void setOutput(Consumer<String> output) {
+        this.output = output;
+    }
+
+    public synchronized void log(String message) {
 
         if (this.messages.size() > 5) this.messages.remove(this.messages.size() - 1);
 
         this.messages.add(0, message);
-        App.status.setText(message);
+        output.accept(message);
 
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package controller.io;
+
+import model.City;
+import model.cityshapes.Circle;
+import model.cityshapes.HollowPlus;
+import model.cityshapes.ShapeComponent;
+import model.cityshapes.Square;
+
+import java.awt.*;
+
+/**
+ * This class holds the size and shape colors of a city, everything about a city
+ * stored in a workspace file apart from its label and location. Workspaces tend
+ * to have few distinct styles, so loaders share one instance per style, and
+ * the binary format stores them once in a dictionary.
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-10-08
+ */
+public class CityStyle {
+
+    public final int size;
+    public final Color circle;
+    public final Color square;
+    public final Color hollowPlus;
+
+    /**
+     * Creates a style.
+     *
+     * @param size       The size of the city
+     * @param circle     The color of the circle, null for no circle
+     * @param square     The color of the square, null for no square
+     * @param hollowPlus The color of the hollow plus, null for no hollow plus
+     */
+    public CityStyle(int size, Color circle, Color square, Color hollowPlus) {
+        this.size = size;
+        this.circle = circle;
+        this.square = square;
+        this.hollowPlus = hollowPlus;
+    }
+
+    /**
+     * Gets the style of a city.
+     *
+     * @param city The city
+     * @return the style
+     */
+    public static CityStyle of(City city) {
+        Color[] colors = city.getShapeColors();
+        return new CityStyle(city.bounds.width, colors[0], colors[1], colors[2]);
+    }
+
+    /**
+     * Creates a city of this style, composing its shape the way the city
+     * factory does, without logging.
+     *
+     * @param label The city's name
+     * @param x     The city's x-coordinate
+     * @param y     The city's y-coordinate
+     * @return the new city
+     */
+    public City createCity(String label, int x, int y) {
+
+        ShapeComponent cityShape = null;
+
+        if (circle != null) {
+            cityShape = new Circle(x, y, size, circle);
+        }
+
+        if (square != null) {
+            Square squareShape = new Square(x, y, size, square);
+            if (cityShape != null) squareShape.setInnerCityShape(cityShape);
+            cityShape = squareShape;
+        }
+
+        if (hollowPlus != null) {
+            HollowPlus hollowPlusShape = new HollowPlus(x, y, size, hollowPlus);
+            if (cityShape != null) hollowPlusShape.setInnerCityShape(cityShape);
+            cityShape = hollowPlusShape;
+        }
+
+        return new City(label, x, y, cityShape, size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CityStyle)) return false;
+        CityStyle other = (CityStyle) o;
+        return size == other.size && sameColor(circle, other.circle) && sameColor(square, other.square)
+                && sameColor(hollowPlus, other.hollowPlus);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = size;
+        hash = 31 * hash + (circle != null ? circle.getRGB() : 0);
+        hash = 31 * hash + (square != null ? square.getRGB() : 0);
+        hash = 31 * hash + (hollowPlus != null ? hollowPlus.getRGB() : 0);
+        return hash;
+    }
+
+    private static boolean sameColor(Color a, Color b) {
+        return a == null ? b == null : b != null && a.getRGB() == b.getRGB();
+    }
+
+}
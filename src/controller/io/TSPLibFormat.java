@@ -0,0 +1,294 @@
+package controller.io;
+
+import controller.tsp.GreatCircleMetric;
+import model.City;
+
+import java.awt.*;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class reads and writes TSPLIB files: .tsp instances with a
+ * NODE_COORD_SECTION of EUC_2D or GEO coordinates, and .tour files. Files are
+ * read a line at a time and the cities are made in one go, without logging.
+ * EUC_2D nodes become cities at their rounded coordinates. GEO nodes are
+ * placed by longitude and latitude, GEO_PIXELS_PER_DEGREE pixels to a degree
+ * with north up. The exact coordinates are kept in the TSPLibInstance for
+ * measuring tours, and for writing the instance back as GEO.
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-10-08
+ */
+public class TSPLibFormat {
+
+    public static final String TSP_EXTENSION = ".tsp";
+    public static final String TOUR_EXTENSION = ".tour";
+    public static final int GEO_PIXELS_PER_DEGREE = 20;
+    public static final CityStyle STYLE = new CityStyle(City.minSize, Color.GRAY, null, null);
+
+    /**
+     * Reads a TSPLIB instance.
+     *
+     * @param file The .tsp file to read
+     * @return the instance
+     * @throws IOException if the file cannot be read or is not a supported instance
+     */
+    public static TSPLibInstance read(Path file) throws IOException {
+
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+
+            Map<String, String> header = readHeader(br, "NODE_COORD_SECTION", file);
+            String name = header.getOrDefault("NAME", file.getFileName().toString());
+            String type = header.getOrDefault("EDGE_WEIGHT_TYPE", "");
+            if (!type.equals(TSPLibInstance.EUC_2D) && !type.equals(TSPLibInstance.GEO)) {
+                throw new IOException("Unsupported EDGE_WEIGHT_TYPE " + type + " in " + file);
+            }
+
+            int capacity = Math.max(16, parseInt(header.getOrDefault("DIMENSION", "16"), file));
+            int[] ids = new int[capacity];
+            double[] xs = new double[capacity], ys = new double[capacity];
+            int count = 0;
+
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                if (line.equals("EOF")) break;
+
+                String[] fields = line.split("\\s+");
+                if (fields.length < 3) throw new IOException("Invalid node in " + file + ": " + line);
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                    xs = Arrays.copyOf(xs, count * 2);
+                    ys = Arrays.copyOf(ys, count * 2);
+                }
+                try {
+                    ids[count] = Integer.parseInt(fields[0]);
+                    xs[count] = Double.parseDouble(fields[1]);
+                    ys[count] = Double.parseDouble(fields[2]);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid node in " + file + ": " + line, e);
+                }
+                count++;
+            }
+
+            ids = Arrays.copyOf(ids, count);
+            xs = Arrays.copyOf(xs, count);
+            ys = Arrays.copyOf(ys, count);
+
+            List<City> cities = new ArrayList<>(count);
+            boolean geo = type.equals(TSPLibInstance.GEO);
+            for (int i = 0; i < count; i++) {
+                String label = String.valueOf(ids[i]);
+                if (geo) {
+                    cities.add(STYLE.createCity(label, geoX(ys[i], GEO_PIXELS_PER_DEGREE),
+                            geoY(xs[i], GEO_PIXELS_PER_DEGREE)));
+                } else {
+                    cities.add(STYLE.createCity(label, (int) Math.round(xs[i]), (int) Math.round(ys[i])));
+                }
+            }
+
+            return new TSPLibInstance(name, type, ids, xs, ys, cities);
+
+        }
+
+    }
+
+    /**
+     * Reads a TSPLIB tour of an instance.
+     *
+     * @param file     The .tour file to read
+     * @param instance The instance the tour visits
+     * @return the cities of the instance in visiting order
+     * @throws IOException if the file cannot be read or names unknown nodes
+     */
+    public static List<City> readTour(Path file, TSPLibInstance instance) throws IOException {
+
+        Map<Integer, City> byId = new HashMap<>();
+        for (int i = 0; i < instance.ids.length; i++) byId.put(instance.ids[i], instance.cities.get(i));
+
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+
+            readHeader(br, "TOUR_SECTION", file);
+            List<City> tour = new ArrayList<>(instance.cities.size());
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                for (String field : line.trim().split("\\s+")) {
+                    if (field.isEmpty()) continue;
+                    int id = parseInt(field, file);
+                    if (id == -1) return tour;
+                    City city = byId.get(id);
+                    if (city == null) throw new IOException("Unknown node " + id + " in " + file);
+                    tour.add(city);
+                }
+            }
+            return tour;
+
+        }
+
+    }
+
+    /**
+     * Writes the cities of a workspace as a TSPLIB instance, numbered as in
+     * nodeIds. A workspace measured with a great-circle metric is written as a
+     * GEO instance: cities still where they were placed from the workspace's
+     * source instance keep its exact coordinates, and the others get those of
+     * their pixels. Any other workspace is written as EUC_2D.
+     *
+     * @param file The .tsp file to write
+     * @param data The workspace data
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeInstance(Path file, WorkspaceData data) throws IOException {
+
+        int[] ids = nodeIds(data.cities);
+        boolean geo = data.metric instanceof GreatCircleMetric;
+        double pixelsPerDegree = geo ? ((GreatCircleMetric) data.metric).pixelsPerDegree : 0;
+        TSPLibInstance source = data.source != null && TSPLibInstance.GEO.equals(data.source.edgeWeightType)
+                && pixelsPerDegree == GEO_PIXELS_PER_DEGREE ? data.source : null;
+
+        WorkspaceFiles.writeAtomically(file, channel -> {
+            BufferedWriter writer = newWriter(channel);
+            writeHeader(writer, file, "TSP", data.cities.size());
+            writer.write("EDGE_WEIGHT_TYPE : " + (geo ? TSPLibInstance.GEO : TSPLibInstance.EUC_2D) + "\n");
+            writer.write("NODE_COORD_SECTION\n");
+            for (int i = 0; i < ids.length; i++) {
+                City city = data.cities.get(i);
+                if (!geo) {
+                    writer.write(ids[i] + " " + city.bounds.x + " " + city.bounds.y + "\n");
+                    continue;
+                }
+                int node = source != null ? source.indexOf(city) : -1;
+                if (node >= 0 && city.bounds.x == geoX(source.ys[node], GEO_PIXELS_PER_DEGREE)
+                        && city.bounds.y == geoY(source.xs[node], GEO_PIXELS_PER_DEGREE)) {
+                    writer.write(ids[i] + " " + source.xs[node] + " " + source.ys[node] + "\n");
+                } else {
+                    writer.write(String.format(Locale.ROOT, "%d %.2f %.2f\n", ids[i],
+                            degreesMinutes(90 - city.bounds.y / pixelsPerDegree),
+                            degreesMinutes(city.bounds.x / pixelsPerDegree - 180)));
+                }
+            }
+            writer.write("EOF\n");
+            writer.flush();
+        });
+
+    }
+
+    /**
+     * Places a GEO longitude, DDD.MM, along x.
+     */
+    private static int geoX(double longitude, double pixelsPerDegree) {
+        return (int) Math.round((Math.toDegrees(TSPLibInstance.geo(longitude)) + 180) * pixelsPerDegree);
+    }
+
+    /**
+     * Places a GEO latitude, DDD.MM, along y, north up.
+     */
+    private static int geoY(double latitude, double pixelsPerDegree) {
+        return (int) Math.round((90 - Math.toDegrees(TSPLibInstance.geo(latitude))) * pixelsPerDegree);
+    }
+
+    /**
+     * Converts degrees to the DDD.MM form of GEO coordinates, rounded to the minute.
+     */
+    private static double degreesMinutes(double degrees) {
+        long minutes = Math.round(Math.abs(degrees) * 60);
+        return Math.signum(degrees) * (minutes / 60 + minutes % 60 / 100.0);
+    }
+
+    /**
+     * Writes the path of a workspace as a TSPLIB tour, its clusters one after
+     * the other, with the cities numbered as in nodeIds.
+     *
+     * @param file The .tour file to write
+     * @param data The workspace data
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeTour(Path file, WorkspaceData data) throws IOException {
+
+        int[] ids = nodeIds(data.cities);
+        WorkspaceFiles.writeAtomically(file, channel -> {
+            BufferedWriter writer = newWriter(channel);
+            writeHeader(writer, file, "TOUR", ids.length);
+            writer.write("TOUR_SECTION\n");
+            for (int id : ids) writer.write(id + "\n");
+            writer.write("-1\nEOF\n");
+            writer.flush();
+        });
+
+    }
+
+    /**
+     * Numbers cities for TSPLIB. Cities read from TSPLIB are labelled with
+     * their node numbers, so if every label is a distinct positive number
+     * those are used, otherwise the cities are numbered from 1 in order.
+     *
+     * @param cities The cities
+     * @return the node number of each city
+     */
+    public static int[] nodeIds(List<City> cities) {
+
+        int[] ids = new int[cities.size()];
+        Set<Integer> seen = new HashSet<>();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = Integer.parseInt(cities.get(i).label);
+                if (ids[i] <= 0 || !seen.add(ids[i])) throw new NumberFormatException();
+            }
+        } catch (NumberFormatException e) {
+            for (int i = 0; i < ids.length; i++) ids[i] = i + 1;
+        }
+        return ids;
+
+    }
+
+    private static BufferedWriter newWriter(FileChannel channel) {
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1));
+    }
+
+    private static void writeHeader(BufferedWriter writer, Path file, String type, int dimension) throws IOException {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        writer.write("NAME : " + (dot > 0 ? name.substring(0, dot) : name) + "\n");
+        writer.write("TYPE : " + type + "\n");
+        writer.write("DIMENSION : " + dimension + "\n");
+    }
+
+    /**
+     * Reads the KEY : VALUE lines up to the line starting a section.
+     */
+    private static Map<String, String> readHeader(BufferedReader br, String section, Path file) throws IOException {
+
+        Map<String, String> header = new HashMap<>();
+        for (String line = br.readLine(); line != null; line = br.readLine()) {
+            line = line.trim();
+            if (line.startsWith(section)) return header;
+            int colon = line.indexOf(':');
+            if (colon > 0) header.put(line.substring(0, colon).trim().toUpperCase(), line.substring(colon + 1).trim());
+        }
+        throw new IOException("No " + section + " in " + file);
+
+    }
+
+    private static int parseInt(String value, Path file) throws IOException {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number " + value + " in " + file, e);
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package controller.io;
+
+import controller.tsp.DistanceMetric;
+import controller.tsp.GreatCircleMetric;
+import model.City;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds a TSPLIB instance as it was read: its exact node coordinates
+ * and the cities placed for them in the workspace. Tour lengths are measured
+ * the TSPLIB way, on the exact coordinates with the instance's rounding, so
+ * they can be compared with the published optimal tour lengths.
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-10-08
+ */
+public class TSPLibInstance {
+
+    public static final String EUC_2D = "EUC_2D";
+    public static final String GEO = "GEO";
+
+    private static final double PI = 3.141592;
+    private static final double RRR = 6378.388;
+
+    public final String name;
+    public final String edgeWeightType;
+    public final int[] ids;
+    public final double[] xs;
+    public final double[] ys;
+    public final List<City> cities;
+    private final Map<City, Integer> indices;
+
+    /**
+     * Creates an instance from the nodes read.
+     *
+     * @param name           The name of the instance
+     * @param edgeWeightType EUC_2D or GEO
+     * @param ids            The node numbers
+     * @param xs             The x coordinates, latitudes for GEO
+     * @param ys             The y coordinates, longitudes for GEO
+     * @param cities         The cities placed for the nodes, in the same order
+     */
+    public TSPLibInstance(String name, String edgeWeightType, int[] ids, double[] xs, double[] ys, List<City> cities) {
+
+        this.name = name;
+        this.edgeWeightType = edgeWeightType;
+        this.ids = ids;
+        this.xs = xs;
+        this.ys = ys;
+        this.cities = cities;
+        this.indices = new IdentityHashMap<>(cities.size());
+        for (int i = 0; i < cities.size(); i++) indices.put(cities.get(i), i);
+
+    }
+
+    /**
+     * Gets the index of the node a city was placed for.
+     *
+     * @param city The city
+     * @return the index, -1 if the city is not part of this instance
+     */
+    public int indexOf(City city) {
+        Integer index = indices.get(city);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Gets the metric the TSP algorithms measure the cities of this instance
+     * with: great-circle distance for GEO nodes, and straight lines otherwise.
+     *
+     * @return the metric
+     */
+    public DistanceMetric metric() {
+        return GEO.equals(edgeWeightType) ? new GreatCircleMetric(TSPLibFormat.GEO_PIXELS_PER_DEGREE)
+                : DistanceMetric.EUCLIDEAN;
+    }
+
+    /**
+     * Measures the distance between two nodes as TSPLIB defines it.
+     *
+     * @param i The index of one node
+     * @param j The index of the other node
+     * @return the distance
+     */
+    public long distance(int i, int j) {
+
+        if (GEO.equals(edgeWeightType)) {
+            double q1 = Math.cos(geo(ys[i]) - geo(ys[j]));
+            double q2 = Math.cos(geo(xs[i]) - geo(xs[j]));
+            double q3 = Math.cos(geo(xs[i]) + geo(xs[j]));
+            return (long) (RRR * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+        }
+
+        double dx = xs[i] - xs[j], dy = ys[i] - ys[j];
+        return Math.round(Math.sqrt(dx * dx + dy * dy));
+
+    }
+
+    /**
+     * Measures a closed tour through cities of this instance.
+     *
+     * @param tour The cities in visiting order
+     * @return the length of the tour
+     * @throws IllegalArgumentException if a city is not part of this instance
+     */
+    public long tourLength(List<City> tour) {
+
+        long length = 0;
+        for (int k = 0; k < tour.size(); k++) {
+            int i = indexOf(tour.get(k)), j = indexOf(tour.get((k + 1) % tour.size()));
+            if (i < 0 || j < 0) throw new IllegalArgumentException("City not in " + name);
+            length += distance(i, j);
+        }
+        return length;
+
+    }
+
+    /**
+     * Converts a TSPLIB GEO coordinate, degrees and minutes as DDD.MM, to radians.
+     */
+    static double geo(double coordinate) {
+        int degrees = (int) coordinate;
+        double minutes = coordinate - degrees;
+        return PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+    }
+
+}
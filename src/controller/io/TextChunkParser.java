@@ -0,0 +1,223 @@
+package controller.io;
+
+import model.City;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class parses the cities of a range of whole lines of a text workspace.
+ * The range is copied out of the mapped file in one bulk get, and numbers are
+ * parsed straight from the copied bytes, so the only strings made are the
+ * labels. Cities of the same style share one style and its colors, found in a
+ * small table keyed by the raw values.
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-10-08
+ */
+class TextChunkParser {
+
+    private static final int KEY_INTS = 5;
+
+    final List<City> cities;
+    int[] clusterEnds;
+    int clusterCount;
+
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int end;
+    private final Map<Integer, Color> colors;
+    private byte[] bytes;
+    private int cursor;
+    private int lineStart;
+    private int[] styleKeys;
+    private CityStyle[] styles;
+    private int styleCount;
+
+    /**
+     * Creates a parser for buffer[start..end), which must start at the
+     * beginning of a line and end after a line break or at the end of the file.
+     * The buffer's position is never moved, so parsers can share it.
+     *
+     * @param buffer The bytes of the file
+     * @param start  The offset of the first line
+     * @param end    The offset past the last line
+     */
+    TextChunkParser(ByteBuffer buffer, int start, int end) {
+        this.cities = new ArrayList<>();
+        this.clusterEnds = new int[16];
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        this.colors = new HashMap<>();
+        this.styleKeys = new int[64 * KEY_INTS];
+        this.styles = new CityStyle[64];
+    }
+
+    /**
+     * Parses every line, recording where the clusters end as the number of
+     * cities parsed before each $$ line.
+     *
+     * @return this parser, holding the cities and cluster ends
+     * @throws UncheckedIOException if a line is not a city
+     */
+    TextChunkParser parse() {
+
+        //a heap copy is read far faster than the mapped buffer, whose every get is checked
+        bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.get(bytes);
+
+        int pos = 0, length = bytes.length;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && bytes[lineEnd] != '\n') lineEnd++;
+            int contentEnd = lineEnd > pos && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+
+            if (contentEnd - pos == 2 && bytes[pos] == '$' && bytes[pos + 1] == '$') {
+                if (clusterCount == clusterEnds.length) clusterEnds = Arrays.copyOf(clusterEnds, clusterCount * 2);
+                clusterEnds[clusterCount++] = cities.size();
+            } else if (contentEnd > pos) {
+                parseCity(pos, contentEnd);
+            }
+
+            pos = lineEnd + 1;
+        }
+
+        bytes = null;
+        return this;
+
+    }
+
+    private void parseCity(int pos, int contentEnd) {
+
+        lineStart = pos;
+        cursor = pos;
+        while (cursor < contentEnd && bytes[cursor] != ',') cursor++;
+        String name = new String(bytes, pos, cursor - pos, StandardCharsets.UTF_8);
+        cursor++;
+
+        int x = nextInt(contentEnd);
+        int y = nextInt(contentEnd);
+        int size = nextInt(contentEnd);
+        int mask = 0, circle = 0, square = 0, hollowPlus = 0;
+        if (hasColor(contentEnd)) {
+            mask |= 1;
+            circle = nextInt(contentEnd);
+        }
+        if (hasColor(contentEnd)) {
+            mask |= 2;
+            square = nextInt(contentEnd);
+        }
+        if (hasColor(contentEnd)) {
+            mask |= 4;
+            hollowPlus = nextInt(contentEnd);
+        }
+
+        cities.add(style(mask, size, circle, square, hollowPlus).createCity(name, x, y));
+
+    }
+
+    /**
+     * Checks if the next field holds a color, skipping it if it holds $ or nothing.
+     */
+    private boolean hasColor(int contentEnd) {
+
+        if (cursor > contentEnd) throw invalid();
+        if (cursor < contentEnd && bytes[cursor] != '$' && bytes[cursor] != ',') return true;
+        while (cursor < contentEnd && bytes[cursor] != ',') cursor++;
+        cursor++;
+        return false;
+
+    }
+
+    private int nextInt(int contentEnd) {
+
+        boolean negative = cursor < contentEnd && bytes[cursor] == '-';
+        if (negative) cursor++;
+
+        long value = 0;
+        int digits = 0;
+        for (; cursor < contentEnd; cursor++, digits++) {
+            int digit = bytes[cursor] - '0';
+            if (digit < 0 || digit > 9) break;
+            value = value * 10 + digit;
+            if (digits > 10) throw invalid();
+        }
+        if (digits == 0 || (cursor < contentEnd && bytes[cursor] != ',')) throw invalid();
+        cursor++;
+
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw invalid();
+        return (int) value;
+
+    }
+
+    private CityStyle style(int mask, int size, int circle, int square, int hollowPlus) {
+
+        int hash = (((mask * 31 + size) * 31 + circle) * 31 + square) * 31 + hollowPlus;
+        int slots = styles.length;
+        for (int slot = (hash ^ (hash >>> 16)) & (slots - 1); ; slot = (slot + 1) & (slots - 1)) {
+            CityStyle style = styles[slot];
+            int at = slot * KEY_INTS;
+            if (style == null) {
+                style = new CityStyle(size, (mask & 1) != 0 ? color(circle) : null,
+                        (mask & 2) != 0 ? color(square) : null, (mask & 4) != 0 ? color(hollowPlus) : null);
+                styles[slot] = style;
+                styleKeys[at] = mask;
+                styleKeys[at + 1] = size;
+                styleKeys[at + 2] = circle;
+                styleKeys[at + 3] = square;
+                styleKeys[at + 4] = hollowPlus;
+                if (++styleCount * 2 > slots) growStyles();
+                return style;
+            }
+            if (styleKeys[at] == mask && styleKeys[at + 1] == size && styleKeys[at + 2] == circle
+                    && styleKeys[at + 3] == square && styleKeys[at + 4] == hollowPlus) {
+                return style;
+            }
+        }
+
+    }
+
+    private void growStyles() {
+
+        int[] oldKeys = styleKeys;
+        CityStyle[] oldStyles = styles;
+        styleKeys = new int[oldKeys.length * 2];
+        styles = new CityStyle[oldStyles.length * 2];
+        styleCount = 0;
+        for (int slot = 0; slot < oldStyles.length; slot++) {
+            if (oldStyles[slot] == null) continue;
+            int at = slot * KEY_INTS;
+            int mask = oldKeys[at], size = oldKeys[at + 1];
+            int circle = oldKeys[at + 2], square = oldKeys[at + 3], hollowPlus = oldKeys[at + 4];
+            int hash = (((mask * 31 + size) * 31 + circle) * 31 + square) * 31 + hollowPlus;
+            int newSlot = (hash ^ (hash >>> 16)) & (styles.length - 1);
+            while (styles[newSlot] != null) newSlot = (newSlot + 1) & (styles.length - 1);
+            styles[newSlot] = oldStyles[slot];
+            System.arraycopy(oldKeys, at, styleKeys, newSlot * KEY_INTS, KEY_INTS);
+            styleCount++;
+        }
+
+    }
+
+    private Color color(int rgb) {
+        return colors.computeIfAbsent(rgb, Color::new);
+    }
+
+    private UncheckedIOException invalid() {
+        return new UncheckedIOException(new IOException("Invalid city at byte offset " + (start + lineStart)));
+    }
+
+}
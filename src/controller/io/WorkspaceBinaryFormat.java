@@ -0,0 +1,308 @@
+package controller.io;
+
+import controller.tsp.DistanceMetric;
+import controller.tsp.GreatCircleMetric;
+import model.City;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class reads and writes the binary workspace format, which is memory
+ * mapped so that opening a large workspace costs little more than reading its
+ * pages. All values are little-endian ints, laid out as:
+ * <pre>
+ * header      magic "TSPW", version, cities, clusters, styles, label bytes,
+ *             metric (0 planar, 1 geographic), pixels per degree as float bits,
+ *             algorithm name bytes, then the UTF-8 algorithm name padded to 4 bytes
+ * clusters    the index one past the last city of each cluster
+ * styles      mask of shapes present, size, circle, square and hollow plus RGB
+ * columns     x of every city, y of every city, style index of every city
+ * labels      the offset one past the end of each city's label, then the
+ *             UTF-8 label bytes padded to 4 bytes
+ * </pre>
+ * Cities are stored in path order, so the clusters are ranges of the columns.
+ * Version 1 files have no metric fields and are read as planar.
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-10-08
+ */
+public class WorkspaceBinaryFormat {
+
+    public static final String EXTENSION = ".tspw";
+    public static final int MAGIC = 0x57505354; //"TSPW" in little-endian
+    public static final int VERSION = 2;
+
+    private static final int HEADER_INTS = 9;
+    private static final int PLANAR = 0, GEOGRAPHIC = 1;
+    private static final int STYLE_INTS = 5;
+    private static final int CIRCLE = 1, SQUARE = 2, HOLLOW_PLUS = 4;
+
+    /**
+     * Reads a binary workspace.
+     *
+     * @param file The file to read
+     * @return the workspace data
+     * @throws IOException if the file cannot be read or is not a workspace
+     */
+    public static WorkspaceData read(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Workspace file too large: " + file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return read(buffer, file);
+
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt workspace file: " + file, e);
+        }
+
+    }
+
+    private static WorkspaceData read(ByteBuffer buffer, Path file) throws IOException {
+
+        if (buffer.remaining() < (HEADER_INTS - 2) * 4 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary workspace file: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported workspace version " + version + ": " + file);
+        }
+
+        int cityCount = buffer.getInt();
+        int clusterCount = buffer.getInt();
+        int styleCount = buffer.getInt();
+        int labelBytes = length(buffer, buffer.getInt(), file);
+        DistanceMetric metric = DistanceMetric.EUCLIDEAN;
+        if (version > 1) {
+            int type = buffer.getInt();
+            float pixelsPerDegree = Float.intBitsToFloat(buffer.getInt());
+            if (type != PLANAR && type != GEOGRAPHIC) throw new IOException("Unsupported metric " + type + ": " + file);
+            metric = WorkspaceFiles.metric(type == GEOGRAPHIC ? TSPLibInstance.GEO : TSPLibInstance.EUC_2D,
+                    pixelsPerDegree);
+        }
+        byte[] algorithm = new byte[length(buffer, buffer.getInt(), file)];
+        buffer.get(algorithm);
+        buffer.position(padded(buffer.position()));
+
+        int[] clusterEnds = ints(buffer, clusterCount);
+
+        int[] styleInts = ints(buffer, styleCount * STYLE_INTS);
+        CityStyle[] styles = new CityStyle[styleCount];
+        Map<Integer, Color> colors = new HashMap<>();
+        for (int i = 0; i < styleCount; i++) {
+            int at = i * STYLE_INTS, mask = styleInts[at];
+            styles[i] = new CityStyle(styleInts[at + 1],
+                    (mask & CIRCLE) != 0 ? colors.computeIfAbsent(styleInts[at + 2], Color::new) : null,
+                    (mask & SQUARE) != 0 ? colors.computeIfAbsent(styleInts[at + 3], Color::new) : null,
+                    (mask & HOLLOW_PLUS) != 0 ? colors.computeIfAbsent(styleInts[at + 4], Color::new) : null);
+        }
+
+        int[] xs = ints(buffer, cityCount);
+        int[] ys = ints(buffer, cityCount);
+        int[] styleIndices = ints(buffer, cityCount);
+        int[] labelEnds = ints(buffer, cityCount);
+        byte[] labels = new byte[labelBytes];
+        buffer.get(labels);
+
+        List<List<City>> path = new ArrayList<>(clusterCount);
+        int city = 0, labelStart = 0;
+        for (int clusterEnd : clusterEnds) {
+            if (clusterEnd < city || clusterEnd > cityCount) throw new IOException("Corrupt cluster table: " + file);
+            List<City> cluster = new ArrayList<>(clusterEnd - city);
+            for (; city < clusterEnd; city++) {
+                String label = new String(labels, labelStart, labelEnds[city] - labelStart, StandardCharsets.UTF_8);
+                labelStart = labelEnds[city];
+                cluster.add(styles[styleIndices[city]].createCity(label, xs[city], ys[city]));
+            }
+            path.add(cluster);
+        }
+
+        return new WorkspaceData(new String(algorithm, StandardCharsets.UTF_8), path, metric);
+
+    }
+
+    /**
+     * Writes a binary workspace.
+     *
+     * @param file The file to write
+     * @param data The workspace data
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, WorkspaceData data) throws IOException {
+
+        List<City> cities = data.cities;
+        byte[] algorithm = data.algorithm.getBytes(StandardCharsets.UTF_8);
+        boolean geographic = data.metric instanceof GreatCircleMetric;
+        float pixelsPerDegree = geographic ? (float) ((GreatCircleMetric) data.metric).pixelsPerDegree : 0;
+
+        Map<CityStyle, Integer> styleIndex = new HashMap<>();
+        List<CityStyle> styles = new ArrayList<>();
+        int[] styleIndices = new int[cities.size()];
+        byte[][] labels = new byte[cities.size()][];
+        int labelBytes = 0;
+        for (int i = 0; i < cities.size(); i++) {
+            CityStyle style = CityStyle.of(cities.get(i));
+            Integer index = styleIndex.get(style);
+            if (index == null) {
+                index = styles.size();
+                styleIndex.put(style, index);
+                styles.add(style);
+            }
+            styleIndices[i] = index;
+            labels[i] = cities.get(i).label.getBytes(StandardCharsets.UTF_8);
+            labelBytes += labels[i].length;
+        }
+
+        long size = padded(HEADER_INTS * 4 + algorithm.length)
+                + 4L * (data.path.size() + styles.size() * STYLE_INTS + 4L * cities.size())
+                + padded(labelBytes);
+        if (size > Integer.MAX_VALUE) throw new IOException("Workspace too large for the binary format");
+        final int labelTableBytes = labelBytes;
+
+        //written through the channel rather than a mapping, which could still be live when the file is moved
+        WorkspaceFiles.writeAtomically(file, channel -> {
+
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(cities.size());
+            out.putInt(data.path.size());
+            out.putInt(styles.size());
+            out.putInt(labelTableBytes);
+            out.putInt(geographic ? GEOGRAPHIC : PLANAR);
+            out.putInt(Float.floatToIntBits(pixelsPerDegree));
+            out.putInt(algorithm.length);
+            out.putBytes(algorithm);
+            out.pad();
+
+            int clusterEnd = 0;
+            for (List<City> cluster : data.path) {
+                clusterEnd += cluster.size();
+                out.putInt(clusterEnd);
+            }
+
+            for (CityStyle style : styles) {
+                int mask = (style.circle != null ? CIRCLE : 0) | (style.square != null ? SQUARE : 0)
+                        | (style.hollowPlus != null ? HOLLOW_PLUS : 0);
+                out.putInt(mask);
+                out.putInt(style.size);
+                out.putInt(rgb(style.circle));
+                out.putInt(rgb(style.square));
+                out.putInt(rgb(style.hollowPlus));
+            }
+
+            for (City city : cities) out.putInt(city.bounds.x);
+            for (City city : cities) out.putInt(city.bounds.y);
+            for (int index : styleIndices) out.putInt(index);
+
+            int labelEnd = 0;
+            for (byte[] label : labels) {
+                labelEnd += label.length;
+                out.putInt(labelEnd);
+            }
+            for (byte[] label : labels) out.putBytes(label);
+            out.pad();
+            out.flush();
+
+        });
+
+    }
+
+    /**
+     * This class writes little-endian ints and bytes to a channel through one
+     * reusable buffer, so the memory used does not grow with the workspace.
+     */
+    private static class Output {
+
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long written;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < 4) drain();
+            buffer.putInt(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (int from = 0; from < bytes.length; ) {
+                if (!buffer.hasRemaining()) drain();
+                int length = Math.min(buffer.remaining(), bytes.length - from);
+                buffer.put(bytes, from, length);
+                from += length;
+            }
+        }
+
+        /**
+         * Pads what was put so far to 4 bytes, so the ints after it stay aligned.
+         */
+        void pad() throws IOException {
+            while (((written + buffer.position()) & 3) != 0) {
+                if (!buffer.hasRemaining()) drain();
+                buffer.put((byte) 0);
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            written += buffer.remaining();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        void flush() throws IOException {
+            drain();
+        }
+
+    }
+
+    /**
+     * Checks a length read from the file against what is left of it.
+     */
+    private static int length(ByteBuffer buffer, int length, Path file) throws IOException {
+        if (length < 0 || length > buffer.remaining()) throw new IOException("Corrupt length " + length + ": " + file);
+        return length;
+    }
+
+    private static int[] ints(ByteBuffer buffer, int count) {
+
+        if (count < 0 || count > buffer.remaining() / 4) throw new BufferUnderflowException();
+        IntBuffer view = buffer.asIntBuffer();
+        int[] values = new int[count];
+        view.get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+
+    }
+
+    private static int rgb(Color color) {
+        return color != null ? color.getRGB() : 0;
+    }
+
+    private static int padded(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+}
@@ -0,0 +1,104 @@
+package controller.io;
+
+import controller.tsp.DistanceMetric;
+import model.City;
+import model.Snapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class holds what a workspace file stores: the name of the TSP algorithm
+ * in use, the cities, grouped into the clusters of the path, and the metric to
+ * measure the cities with. Workspaces are planar, so the metric is Euclidean
+ * unless the cities were placed from geographic coordinates. Cities read from
+ * a TSPLIB instance also keep the instance, so its exact coordinates can be
+ * written back.
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-10-08
+ */
+public class WorkspaceData {
+
+    public final String algorithm;
+    public final List<List<City>> path;
+    public final List<City> cities;
+    public final DistanceMetric metric;
+    public final TSPLibInstance source;
+
+    /**
+     * Creates the workspace data for a path.
+     *
+     * @param algorithm The name of the TSP algorithm, null if the file names none
+     * @param path      The clusters of cities, every city in exactly one
+     */
+    public WorkspaceData(String algorithm, List<List<City>> path) {
+        this(algorithm, path, DistanceMetric.EUCLIDEAN);
+    }
+
+    /**
+     * Creates the workspace data for a path measured with a given metric.
+     *
+     * @param algorithm The name of the TSP algorithm, null if the file names none
+     * @param path      The clusters of cities, every city in exactly one
+     * @param metric    The metric to measure the cities with
+     */
+    public WorkspaceData(String algorithm, List<List<City>> path, DistanceMetric metric) {
+        this(algorithm, path, metric, null);
+    }
+
+    /**
+     * Creates the workspace data for a path of cities some of which were read
+     * from a TSPLIB instance.
+     *
+     * @param algorithm The name of the TSP algorithm, null if the file names none
+     * @param path      The clusters of cities, every city in exactly one
+     * @param metric    The metric to measure the cities with
+     * @param source    The instance the cities were read from, null if none
+     */
+    public WorkspaceData(String algorithm, List<List<City>> path, DistanceMetric metric, TSPLibInstance source) {
+
+        this.algorithm = algorithm;
+        this.path = path;
+        this.metric = metric;
+        this.source = source;
+        int count = 0;
+        for (List<City> cluster : path) count += cluster.size();
+        this.cities = new ArrayList<>(count);
+        for (List<City> cluster : path) cities.addAll(cluster);
+
+    }
+
+    /**
+     * Creates the workspace data for a blackboard snapshot. Cities the path
+     * does not have yet are stored as one more cluster.
+     *
+     * @param algorithm The name of the TSP algorithm
+     * @param snapshot  The snapshot to store
+     * @param metric    The metric the cities are measured with
+     * @param source    The TSPLIB instance the cities were read from, null if none
+     * @return the workspace data
+     */
+    public static WorkspaceData of(String algorithm, Snapshot snapshot, DistanceMetric metric,
+                                   TSPLibInstance source) {
+
+        Set<City> inPath = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<City> cluster : snapshot.path) inPath.addAll(cluster);
+
+        List<City> leftOver = new ArrayList<>();
+        for (City city : snapshot.cityList) {
+            if (!inPath.contains(city)) leftOver.add(city);
+        }
+
+        List<List<City>> path = new ArrayList<>(snapshot.path);
+        path.removeIf(List::isEmpty);
+        if (!leftOver.isEmpty()) path.add(leftOver);
+        return new WorkspaceData(algorithm, path, metric, source);
+
+    }
+
+}
@@ -0,0 +1,167 @@
+package controller.io;
+
+import controller.tsp.DistanceMetric;
+import controller.tsp.GreatCircleMetric;
+import controller.tsp.TSPNearestNbr;
+import model.City;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class reads and writes workspace files in the format their extension
+ * names, and converts workspaces between the formats from the command line.
+ * Files are written to a temporary file that then replaces them, so a failed
+ * save never leaves a half-written workspace behind:
+ * java controller.io.WorkspaceFiles input.txt output.tspw
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-10-08
+ */
+public class WorkspaceFiles {
+
+    /**
+     * Checks if a file has the extension of a workspace format.
+     *
+     * @param filepath The path of the file
+     * @return true if the file can be read as a workspace
+     */
+    public static boolean isWorkspace(String filepath) {
+        return isBinary(filepath) || filepath.toLowerCase().endsWith(WorkspaceTextFormat.EXTENSION)
+                || filepath.toLowerCase().endsWith(TSPLibFormat.TSP_EXTENSION);
+    }
+
+    /**
+     * Checks if a file has the extension of a format workspaces can be saved as.
+     *
+     * @param filepath The path of the file
+     * @return true if the workspace can be written to the file
+     */
+    public static boolean isWritable(String filepath) {
+        return isWorkspace(filepath) || filepath.toLowerCase().endsWith(TSPLibFormat.TOUR_EXTENSION);
+    }
+
+    /**
+     * Reads a workspace file. A TSPLIB instance becomes a workspace with its
+     * nodes in one cluster, no algorithm named, the instance's metric, and the
+     * instance as its source.
+     *
+     * @param file The file to read
+     * @return the workspace data
+     * @throws IOException if the file cannot be read or is not a workspace
+     */
+    public static WorkspaceData read(Path file) throws IOException {
+
+        if (isBinary(file.toString())) return WorkspaceBinaryFormat.read(file);
+        if (!file.toString().toLowerCase().endsWith(TSPLibFormat.TSP_EXTENSION)) return WorkspaceTextFormat.read(file);
+
+        TSPLibInstance instance = TSPLibFormat.read(file);
+        List<List<City>> path = new ArrayList<>();
+        path.add(instance.cities);
+        return new WorkspaceData(null, path, instance.metric(), instance);
+
+    }
+
+    /**
+     * Writes a workspace file. A .tsp file gets the cities as a TSPLIB instance
+     * and a .tour file gets the path as a TSPLIB tour.
+     *
+     * @param file The file to write
+     * @param data The workspace data
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, WorkspaceData data) throws IOException {
+
+        String filepath = file.toString().toLowerCase();
+        if (isBinary(filepath)) WorkspaceBinaryFormat.write(file, data);
+        else if (filepath.endsWith(TSPLibFormat.TSP_EXTENSION)) TSPLibFormat.writeInstance(file, data);
+        else if (filepath.endsWith(TSPLibFormat.TOUR_EXTENSION)) TSPLibFormat.writeTour(file, data);
+        else WorkspaceTextFormat.write(file, data);
+
+    }
+
+    /**
+     * Writes a file by writing a temporary file next to it and then moving it
+     * into place, so the file is either replaced in full or left as it was.
+     *
+     * @param file The file to write
+     * @param body Writes the contents to the channel of the temporary file
+     * @throws IOException if the file cannot be written
+     */
+    static void writeAtomically(Path file, ChannelWriter body) throws IOException {
+
+        Path target = file.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                body.write(channel);
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+    }
+
+    /**
+     * Writes the contents of a file to its channel.
+     */
+    interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Makes the metric of a workspace from its TSPLIB edge weight type.
+     *
+     * @param type            GEO or EUC_2D
+     * @param pixelsPerDegree The scale the cities were placed at, for GEO
+     * @return the metric
+     * @throws IOException if the type is neither
+     */
+    static DistanceMetric metric(String type, double pixelsPerDegree) throws IOException {
+        if (TSPLibInstance.GEO.equals(type) && pixelsPerDegree > 0) return new GreatCircleMetric(pixelsPerDegree);
+        if (TSPLibInstance.EUC_2D.equals(type)) return DistanceMetric.EUCLIDEAN;
+        throw new IOException("Unsupported metric " + type);
+    }
+
+    private static boolean isBinary(String filepath) {
+        return filepath.toLowerCase().endsWith(WorkspaceBinaryFormat.EXTENSION);
+    }
+
+    /**
+     * Converts a workspace file to the format of another file name.
+     *
+     * @param args The file to read and the file to write
+     * @throws IOException if either file cannot be used
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length != 2) {
+            System.err.println("Usage: java controller.io.WorkspaceFiles <input workspace> <output workspace>");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        WorkspaceData data = read(Paths.get(args[0]));
+        if (data.algorithm == null) data = new WorkspaceData(TSPNearestNbr.name, data.path, data.metric, data.source);
+        write(Paths.get(args[1]), data);
+        System.out.printf("Converted %d cities in %d clusters in %d ms%n", data.cities.size(), data.path.size(),
+                (System.nanoTime() - start) / 1000000);
+
+    }
+
+}
@@ -0,0 +1,291 @@
+package controller.io;
+
+import controller.tsp.DistanceMetric;
+import controller.tsp.GreatCircleMetric;
+import model.City;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class reads and writes the text workspace format. The first line names
+ * the TSP algorithm. A workspace of geographic cities follows it with a line
+ * METRIC,GEO,pixelsPerDegree, while a planar one has no such line. Then every
+ * city takes a line in the form label,x,y,size,circle,square,hollowPlus, where
+ * the colors are RGB values and $ stands for a shape the city does not have.
+ * Each cluster of the path ends with a line holding $$.
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-10-08
+ */
+public class WorkspaceTextFormat {
+
+    public static final String EXTENSION = ".txt";
+    public static final String CLUSTER_END = "$$";
+    public static final String NO_SHAPE = "$";
+    public static final String METRIC = "METRIC";
+
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+
+    /**
+     * Reads a text workspace. The file is memory mapped and cut into chunks,
+     * which are parsed in parallel on the common ForkJoinPool and joined back in
+     * order. Each chunk is cut after the first $$ line past its share of the
+     * file. A cluster may hold most of the file, though, so a chunk with no $$
+     * line in the next share is cut at a line end instead. Each chunk reports
+     * where its clusters end, and a cluster split across chunks is put back
+     * together here.
+     *
+     * @param file The file to read
+     * @return the workspace data
+     * @throws IOException if the file cannot be read or is not a workspace
+     */
+    public static WorkspaceData read(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+            if (size == 0) throw new IOException("Empty workspace file: " + file);
+            if (size > Integer.MAX_VALUE) throw new IOException("Workspace file too large: " + file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int end = (int) size;
+
+            //first line contains the algo
+            int bodyStart = lineEnd(buffer, 0, end);
+            int algorithmEnd = bodyStart > 0 && buffer.get(bodyStart - 1) == '\r' ? bodyStart - 1 : bodyStart;
+            byte[] algorithm = new byte[algorithmEnd];
+            buffer.get(algorithm);
+            bodyStart = Math.min(end, bodyStart + 1);
+
+            //a metric line has three fields, so it cannot be a city named METRIC
+            DistanceMetric metric = DistanceMetric.EUCLIDEAN;
+            int metricEnd = lineEnd(buffer, bodyStart, end);
+            String[] fields = ascii(buffer, bodyStart, metricEnd).trim().split(",");
+            if (fields.length == 3 && fields[0].equals(METRIC)) {
+                try {
+                    metric = WorkspaceFiles.metric(fields[1], Double.parseDouble(fields[2]));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid metric in " + file, e);
+                }
+                bodyStart = Math.min(end, metricEnd + 1);
+            }
+
+            int chunkCount = (int) Math.max(1, Math.min(4L * ForkJoinPool.getCommonPoolParallelism(),
+                    (end - bodyStart) / MIN_CHUNK_BYTES));
+            List<ForkJoinTask<TextChunkParser>> tasks = new ArrayList<>(chunkCount);
+            int chunkStart = bodyStart;
+            for (int k = 1; k <= chunkCount; k++) {
+                int cut = bodyStart + (int) ((long) (end - bodyStart) * k / chunkCount);
+                int nextCut = bodyStart + (int) ((long) (end - bodyStart) * (k + 1) / chunkCount);
+                int chunkEnd = k == chunkCount ? end : clusterEnd(buffer, cut, Math.min(end, nextCut));
+                if (chunkEnd < 0) chunkEnd = Math.min(end, lineEnd(buffer, cut, end) + 1);
+                if (chunkEnd <= chunkStart) continue;
+                TextChunkParser parser = new TextChunkParser(buffer, chunkStart, chunkEnd);
+                tasks.add(ForkJoinPool.commonPool().submit(parser::parse));
+                chunkStart = chunkEnd;
+            }
+
+            List<List<City>> path = new ArrayList<>();
+            List<City> cluster = new ArrayList<>();
+            for (ForkJoinTask<TextChunkParser> task : tasks) {
+                TextChunkParser chunk;
+                try {
+                    chunk = task.join();
+                } catch (UncheckedIOException e) {
+                    //the pool may hand back a copy with the original as its cause
+                    Throwable cause = e;
+                    while (!(cause instanceof IOException)) cause = cause.getCause();
+                    throw new IOException(cause.getMessage() + " in " + file, cause);
+                }
+
+                int from = 0;
+                for (int i = 0; i < chunk.clusterCount; i++) {
+                    cluster.addAll(chunk.cities.subList(from, chunk.clusterEnds[i]));
+                    from = chunk.clusterEnds[i];
+                    if (!cluster.isEmpty()) path.add(cluster);
+                    cluster = new ArrayList<>();
+                }
+                cluster.addAll(chunk.cities.subList(from, chunk.cities.size()));
+            }
+
+            if (!cluster.isEmpty()) path.add(cluster);
+            return new WorkspaceData(new String(algorithm, StandardCharsets.UTF_8), path, metric);
+
+        }
+
+    }
+
+    /**
+     * Finds the first $$ line that starts after pos and before limit.
+     *
+     * @return the offset past that line, -1 if there is none
+     */
+    private static int clusterEnd(ByteBuffer buffer, int pos, int limit) {
+        for (pos = lineEnd(buffer, pos, limit) + 1; pos + 1 < limit; pos = lineEnd(buffer, pos, limit) + 1) {
+            if (buffer.get(pos) != '$' || buffer.get(pos + 1) != '$') continue;
+            int next = pos + 2 < limit && buffer.get(pos + 2) == '\r' ? pos + 3 : pos + 2;
+            if (next == buffer.limit()) return next;
+            if (next < buffer.limit() && buffer.get(next) == '\n') return next + 1;
+        }
+        return -1;
+    }
+
+    private static int lineEnd(ByteBuffer buffer, int pos, int end) {
+        while (pos < end && buffer.get(pos) != '\n') pos++;
+        return pos;
+    }
+
+    /**
+     * Reads buffer[start..end) as text, at most as much as a metric line takes.
+     */
+    private static String ascii(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[Math.min(end - start, 64)];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buffer.get(start + i);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes a text workspace. Each city is encoded straight into one reusable
+     * buffer that is written out through a file channel whenever it fills up,
+     * so the memory used does not grow with the number of cities.
+     *
+     * @param file The file to write
+     * @param data The workspace data
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, WorkspaceData data) throws IOException {
+        WorkspaceFiles.writeAtomically(file, channel -> {
+
+            Encoder encoder = new Encoder(channel);
+            encoder.putString(data.algorithm);
+            encoder.putByte('\n');
+            if (data.metric instanceof GreatCircleMetric) {
+                encoder.putString(METRIC + "," + TSPLibInstance.GEO + ","
+                        + ((GreatCircleMetric) data.metric).pixelsPerDegree);
+                encoder.putByte('\n');
+            }
+            for (List<City> cluster : data.path) {
+                for (City city : cluster) encoder.putCity(city);
+                encoder.putString(CLUSTER_END);
+                encoder.putByte('\n');
+            }
+            encoder.flush();
+
+        });
+    }
+
+    /**
+     * This class encodes the lines of a text workspace into a buffer it
+     * writes out to a channel when full.
+     */
+    private static class Encoder {
+
+        private static final int BUFFER_SIZE = 1 << 16;
+        private static final int MAX_INT_BYTES = 11;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final byte[] digits;
+
+        Encoder(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.digits = new byte[MAX_INT_BYTES];
+        }
+
+        void putCity(City city) throws IOException {
+
+            putString(city.label);
+            ensure(7 * (MAX_INT_BYTES + 1) + 2);
+            buffer.put((byte) ',');
+            putInt(city.bounds.x);
+            putInt(city.bounds.y);
+            putInt(city.bounds.width);
+            for (Color color : city.getShapeColors()) {
+                if (color != null) putInt(color.getRGB());
+                else buffer.put((byte) '$').put((byte) ',');
+            }
+            buffer.put((byte) '\n');
+
+        }
+
+        void putString(String value) throws IOException {
+
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) >= 0x80) {
+                    putBytes(value.getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+            }
+
+            for (int i = 0; i < value.length(); i++) {
+                if (!buffer.hasRemaining()) drain();
+                buffer.put((byte) value.charAt(i));
+            }
+
+        }
+
+        void putByte(char value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Puts an int and the comma after it, there must be room for both.
+         */
+        private void putInt(int value) {
+
+            long remaining = value;
+            if (remaining < 0) {
+                buffer.put((byte) '-');
+                remaining = -remaining;
+            }
+
+            int count = 0;
+            do {
+                digits[count++] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining > 0);
+            while (count > 0) buffer.put(digits[--count]);
+            buffer.put((byte) ',');
+
+        }
+
+        private void putBytes(byte[] bytes) throws IOException {
+            for (int from = 0; from < bytes.length; ) {
+                if (!buffer.hasRemaining()) drain();
+                int length = Math.min(buffer.remaining(), bytes.length - from);
+                buffer.put(bytes, from, length);
+                from += length;
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        void flush() throws IOException {
+            drain();
+        }
+
+    }
+
+}
@@ -0,0 +1,67 @@
+package controller.tsp;
+
+/**
+ * This interface is a way of measuring the distance between two cities. Every
+ * TSP algorithm measures through the distance oracle, which holds one metric
+ * for all of them. A metric may keep what it needs of a city's position in its
+ * TSPCity, worked out once by place when the city is created or moved. The
+ * workspace is planar, so EUCLIDEAN is used unless the cities were placed from
+ * geographic coordinates, when a GreatCircleMetric is used.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public interface DistanceMetric {
+
+    DistanceMetric EUCLIDEAN = new EuclideanMetric();
+    DistanceMetric SQUARED_EUCLIDEAN = new SquaredEuclideanMetric();
+
+    /**
+     * Works out what the metric needs of the current position of a city.
+     *
+     * @param tspCity The city, created or moved
+     */
+    void place(TSPCity tspCity);
+
+    /**
+     * Measures the distance between two placed cities.
+     *
+     * @param a The first city
+     * @param b The second city
+     * @return the distance between them
+     */
+    double distance(TSPCity a, TSPCity b);
+
+    /**
+     * Gets a value that orders pairs of cities the same way as their distance,
+     * for when only comparisons are needed and it is cheaper to work out.
+     *
+     * @param a The first city
+     * @param b The second city
+     * @return the value for the pair
+     */
+    default double comparableDistance(TSPCity a, TSPCity b) {
+        return distance(a, b);
+    }
+
+    /**
+     * Gets the cities as points in space, in which the straight-line distance
+     * orders pairs of cities the same way as this metric does.
+     *
+     * @param tspCities The placed cities
+     * @return the coordinates, one array per dimension
+     */
+    double[][] embedding(TSPCity[] tspCities);
+
+    /**
+     * Tells whether measuring a pair costs more than looking it up in a
+     * cache. The distance oracle only caches the pairs of metrics that do.
+     *
+     * @return true if distances are worth caching
+     */
+    default boolean isCostly() {
+        return false;
+    }
+
+}
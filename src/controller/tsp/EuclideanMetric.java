@@ -0,0 +1,41 @@
+package controller.tsp;
+
+/**
+ * This class measures the straight-line distance between cities in workspace
+ * pixels. Pairs are compared by their squared distance, which saves the root.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class EuclideanMetric implements DistanceMetric {
+
+    @Override
+    public void place(TSPCity tspCity) {
+        tspCity.x = tspCity.city.bounds.x;
+        tspCity.y = tspCity.city.bounds.y;
+    }
+
+    @Override
+    public double distance(TSPCity a, TSPCity b) {
+        return Math.sqrt(SQUARED_EUCLIDEAN.distance(a, b));
+    }
+
+    @Override
+    public double comparableDistance(TSPCity a, TSPCity b) {
+        return SQUARED_EUCLIDEAN.distance(a, b);
+    }
+
+    @Override
+    public double[][] embedding(TSPCity[] tspCities) {
+
+        double[][] points = new double[2][tspCities.length];
+        for (int i = 0; i < tspCities.length; i++) {
+            points[0][i] = tspCities[i].x;
+            points[1][i] = tspCities[i].y;
+        }
+        return points;
+
+    }
+
+}
@@ -0,0 +1,72 @@
+package controller.tsp;
+
+/**
+ * This class measures the great-circle distance between cities, in miles, with
+ * the haversine formula. Cities are taken to be placed by longitude along x and
+ * latitude along y, north up, a given number of pixels to a degree, with x = 0
+ * at 180 degrees west and y = 0 at the north pole. Each city's latitude and
+ * longitude in radians and the cosine of its latitude are worked out when it is
+ * placed, so measuring a pair takes two sines, a root and an arcsine. Pairs are
+ * compared by the haversine itself, which saves the root and the arcsine.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class GreatCircleMetric implements DistanceMetric {
+
+    public static final double EARTH_DIAMETER_MILES = 2 * TSPAlgorithm.EARTH_EQ_RAD * TSPAlgorithm.KM_TO_MILES;
+
+    public final double pixelsPerDegree;
+
+    /**
+     * Creates a great-circle metric for cities placed at the given scale.
+     *
+     * @param pixelsPerDegree The number of pixels to a degree of longitude or latitude
+     */
+    public GreatCircleMetric(double pixelsPerDegree) {
+        this.pixelsPerDegree = pixelsPerDegree;
+    }
+
+    @Override
+    public void place(TSPCity tspCity) {
+        tspCity.x = tspCity.city.bounds.x;
+        tspCity.y = tspCity.city.bounds.y;
+        tspCity.longitude = (tspCity.x / pixelsPerDegree - 180) * TSPAlgorithm.DEG_TO_RAD;
+        tspCity.latitude = (90 - tspCity.y / pixelsPerDegree) * TSPAlgorithm.DEG_TO_RAD;
+        tspCity.cosLatitude = Math.cos(tspCity.latitude);
+    }
+
+    @Override
+    public double distance(TSPCity a, TSPCity b) {
+        return EARTH_DIAMETER_MILES * Math.asin(Math.sqrt(comparableDistance(a, b)));
+    }
+
+    @Override
+    public double comparableDistance(TSPCity a, TSPCity b) {
+        double sinLatitude = Math.sin((b.latitude - a.latitude) / 2);
+        double sinLongitude = Math.sin((b.longitude - a.longitude) / 2);
+        double haversine = sinLatitude * sinLatitude + a.cosLatitude * b.cosLatitude * sinLongitude * sinLongitude;
+        return Math.min(1, haversine);
+    }
+
+    @Override
+    public boolean isCostly() {
+        return true;
+    }
+
+    @Override
+    public double[][] embedding(TSPCity[] tspCities) {
+
+        double[][] points = new double[3][tspCities.length];
+        for (int i = 0; i < tspCities.length; i++) {
+            TSPCity tspCity = tspCities[i];
+            points[0][i] = tspCity.cosLatitude * Math.cos(tspCity.longitude);
+            points[1][i] = tspCity.cosLatitude * Math.sin(tspCity.longitude);
+            points[2][i] = Math.sin(tspCity.latitude);
+        }
+        return points;
+
+    }
+
+}
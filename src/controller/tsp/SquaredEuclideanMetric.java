@@ -0,0 +1,26 @@
+package controller.tsp;
+
+/**
+ * This class measures the squared straight-line distance between cities in
+ * workspace pixels. It orders pairs of cities like the Euclidean metric does
+ * without taking a root, so it is meant for comparing distances; the lengths
+ * of tours measured with it mean nothing.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class SquaredEuclideanMetric extends EuclideanMetric {
+
+    @Override
+    public double distance(TSPCity a, TSPCity b) {
+        double dx = a.x - b.x, dy = a.y - b.y;
+        return dx * dx + dy * dy;
+    }
+
+    @Override
+    public double comparableDistance(TSPCity a, TSPCity b) {
+        return distance(a, b);
+    }
+
+}
@@ -1,15 +1,28 @@
 package controller.tsp;
 
+import controller.Logger;
 import model.Blackboard;
 import model.City;
+import model.CityChanges;
+import model.Snapshot;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Observable;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * This abstract class serves as the base algorithm for all the TSP algorithms.
  * Each child of the class must implement the method calculate. After they are
- * done calculating, they notify their observers.
+ * done calculating, they notify their observers. The run loop keeps the path
+ * up to date with the blackboard, and a detached algorithm solves on its own
+ * outside the app.
  *
  * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
  * @version 1.0
@@ -17,19 +30,61 @@ import java.util.Observable;
  */
 public abstract class TSPAlgorithm extends Observable implements Runnable {
 
-    public boolean keepRunning = true;
+    public volatile boolean keepRunning = true;
     public static final double COOLING_RATE = 0.005;
-    public static final double TEMP_MIN = 0.99;
     public static final double EARTH_EQ_RAD = 6378.1370D;
     public static final double DEG_TO_RAD = Math.PI / 180D;
     public static final double KM_TO_MILES = 0.621371;
+    public static final long PUBLISH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    public static final long REFINE_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    public static final int MAX_IDLE_SLICES = 20;
+    public static final double DRIFT_THRESHOLD = 0.1;
 
     public final TSPTypes type;
+    public boolean anytime;
+    public boolean incrementalRepair;
+    public volatile TSPCancellationToken cancellation = new TSPCancellationToken(true);
+    public TSPDistanceOracle oracle = TSPDistanceOracle.getInstance();
+    /**
+     * Seeds the random streams at the start of each calculation, so with the
+     * same seed and cities a calculation repeats, as far as a time budget lets it.
+     */
+    public long seed = ThreadLocalRandom.current().nextLong();
+    private boolean detached;
+    private volatile List<List<City>> lastPath;
+    private double publishedDistance = Double.MAX_VALUE;
+    private long lastPublishNanos;
+    private List<City> lastTour;
+    private final List<City> addedCities = new ArrayList<>();
+    private final Set<City> movedCities = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int insertedCities;
+    private Snapshot snapshot;
 
     protected TSPAlgorithm(TSPTypes type) {
         this.type = type;
     }
 
+    /**
+     * Detaches the algorithm from the app: it gets a distance oracle of its own,
+     * paths are kept for getLastPath instead of going to the blackboard, and
+     * calculations are only cancelled when asked to. Many detached algorithms
+     * can then solve at once, as the batch solver does.
+     */
+    public void detach() {
+        this.detached = true;
+        this.oracle = new TSPDistanceOracle();
+        this.cancellation = new TSPCancellationToken(false);
+    }
+
+    /**
+     * Stops the solver: cancels the calculation in progress and ends the run loop
+     * once it is cancelled or, if waiting for a change, once its thread is interrupted.
+     */
+    public void stop() {
+        this.keepRunning = false;
+        this.cancellation.cancel();
+    }
+
     /**
      * Each child of this class implements this method.
      *
@@ -37,21 +92,206 @@ public abstract class TSPAlgorithm extends Observable implements Runnable {
      */
     public abstract void calculate(List<City> cityList);
 
+    /**
+     * Children supporting the anytime mode override this method to improve the
+     * tour of the last calculation for about REFINE_SLICE_NANOS, publishing it
+     * if it got better. It is called repeatedly while the city data is unchanged,
+     * until MAX_IDLE_SLICES calls in a row have published no better tour.
+     *
+     * @return false if there is nothing left to refine
+     */
+    protected boolean refine() {
+        return false;
+    }
+
+    /**
+     * Children supporting the anytime mode override this method to carry on
+     * refining from a tour that was repaired instead of calculated.
+     *
+     * @param route The repaired route
+     */
+    protected void resume(TSPRoute route) {
+    }
+
+    /**
+     * Publishes a tour to the blackboard if the anytime mode is on, the tour is
+     * shorter than the last one published, and the last one was published at
+     * least PUBLISH_INTERVAL_NANOS ago. The tour is only built when published.
+     *
+     * @param distance The length of the tour
+     * @param tour     Builds the tour to publish
+     */
+    protected void publishIfDue(double distance, Supplier<List<City>> tour) {
+        if (!anytime || distance >= publishedDistance) return;
+        if (System.nanoTime() - lastPublishNanos < PUBLISH_INTERVAL_NANOS) return;
+        publish(distance, tour.get());
+    }
+
+    /**
+     * Publishes a tour to the blackboard as a path with a single cluster
+     * and notifies the observers.
+     *
+     * @param distance The length of the tour
+     * @param tour     The tour to publish
+     */
+    protected void publish(double distance, List<City> tour) {
+
+        List<List<City>> path = new ArrayList<>();
+        path.add(tour);
+        publishPath(path);
+
+        publishedDistance = distance;
+        lastPublishNanos = System.nanoTime();
+        lastTour = tour;
+
+    }
+
+    /**
+     * Publishes a path to the blackboard and notifies the observers, unless the
+     * blackboard drops it as stale. The path is tagged with the snapshot the run
+     * loop is solving, or the current one if calculate was called directly.
+     * A detached algorithm only keeps the path.
+     *
+     * @param path The path to publish
+     */
+    protected void publishPath(List<List<City>> path) {
+
+        this.lastPath = path;
+        if (detached) {
+            setChanged();
+            notifyObservers();
+            return;
+        }
+
+        Snapshot basedOn = snapshot != null ? snapshot : Blackboard.getInstance().getSnapshot();
+        if (!Blackboard.getInstance().publishPath(path, basedOn)) {
+            Logger.getInstance().log("Stale path dropped.");
+            return;
+        }
+
+        Logger.getInstance().log("Path updated.");
+        setChanged();
+        notifyObservers();
+
+    }
+
+    /**
+     * Gets the last path the algorithm published.
+     *
+     * @return the path, null if none was published yet
+     */
+    public List<List<City>> getLastPath() {
+        return lastPath;
+    }
+
+    /**
+     * Gets the length of the last tour published with publish.
+     *
+     * @return the tour length, Double.MAX_VALUE if none since the data last changed
+     */
+    protected double getPublishedDistance() {
+        return publishedDistance;
+    }
+
     /**
      * This method ensures that the TSP Algorithm keeps calculating the latest path
-     * until asked to stop.
+     * until asked to stop. It sleeps until the city data changes, and a burst of
+     * changes is solved once on the latest data. A solve still running when the
+     * data changes is cancelled and started over on the new data.
+     * In anytime mode better tours are published while solving, at most once per
+     * PUBLISH_INTERVAL_NANOS, and the tour is refined at low priority in between,
+     * until the data changes again or the tour stops getting shorter.
+     * With incremental repair on, a change that only added or moved cities is
+     * handled by inserting them into the last published tour at their cheapest
+     * positions instead of solving again, until the cities added since the last
+     * full solve pass DRIFT_THRESHOLD of the tour.
      */
     public void run() {
         while (this.keepRunning) {
             try {
-                Thread.sleep(1); //without this code won't work, need to ask prof. why
-                if (Blackboard.getInstance().dataChanged) {
-                    this.calculate(Blackboard.getInstance().cityList);
-                    Blackboard.getInstance().dataChanged = false;
+                Blackboard.getInstance().awaitDataChanged();
+                CityChanges changes = Blackboard.getInstance().takeCityChanges();
+                this.snapshot = changes.snapshot;
+                if (changes.restructured) {
+                    this.lastTour = null;
+                    this.addedCities.clear();
+                    this.movedCities.clear();
+                }
+                this.addedCities.addAll(changes.added);
+                this.movedCities.addAll(changes.moved);
+
+                if (canRepair()) {
+                    repair();
+                    this.insertedCities += this.addedCities.size();
+                } else {
+                    this.calculate(this.snapshot.cityList);
+                    this.insertedCities = 0;
                 }
+                this.addedCities.clear();
+                this.movedCities.clear();
+
+                if (this.anytime) refineWhileIdle();
             } catch (InterruptedException e) {
-                e.printStackTrace();
+                this.keepRunning = false;
+            } catch (CancellationException e) {
+                Logger.getInstance().log("Calculation cancelled.");
             }
         }
     }
+
+    private boolean canRepair() {
+        if (!this.incrementalRepair || this.lastTour == null) return false;
+        if (this.addedCities.isEmpty() && this.movedCities.isEmpty()) return false;
+        return this.insertedCities + this.addedCities.size() <= DRIFT_THRESHOLD * this.lastTour.size();
+    }
+
+    /**
+     * Inserts the added cities into the last published tour, takes the moved
+     * cities out and puts each one back where it adds the least length, and
+     * improves the tour around them.
+     */
+    private void repair() {
+
+        Logger.getInstance().log("Repairing the path around " + addedCities.size() + " added and "
+                + movedCities.size() + " moved cities");
+
+        List<City> cities = new ArrayList<>(lastTour);
+        if (!addedCities.isEmpty()) {
+            //a cancelled calculation may have published some of them already
+            Set<City> inTour = Collections.newSetFromMap(new IdentityHashMap<>());
+            inTour.addAll(lastTour);
+            addedCities.removeIf(inTour::contains);
+            cities.addAll(addedCities);
+        }
+
+        List<TSPCity> tour = oracle.sync(cities);
+        TSPRoute route = new TSPTourRepair(tour).repair(addedCities, movedCities, cancellation);
+        publish(route.getTotalDistance(), route.toCityList());
+        resume(route);
+
+    }
+
+    /**
+     * Refines the last tour at low priority until the data changes, refine has
+     * nothing left to do, or MAX_IDLE_SLICES slices in a row found nothing
+     * better, so an idle app does not keep a core busy for nothing.
+     */
+    private void refineWhileIdle() {
+
+        Thread thread = Thread.currentThread();
+        int priority = thread.getPriority();
+        thread.setPriority(Thread.MIN_PRIORITY);
+        try {
+            int idleSlices = 0;
+            while (this.keepRunning && !this.cancellation.isCancelled() && idleSlices < MAX_IDLE_SLICES) {
+                double published = this.publishedDistance;
+                if (!refine()) break;
+                idleSlices = this.publishedDistance < published ? 0 : idleSlices + 1;
+                Thread.yield();
+            }
+        } finally {
+            thread.setPriority(priority);
+        }
+
+    }
 }
@@ -0,0 +1,244 @@
+package controller.tsp;
+
+import model.City;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class is the simulated annealing move engine shared by the annealing
+ * TSP algorithms. A move (swap, 2-opt reversal or node insertion) is scored by
+ * the change in the handful of edges it touches, the running tour length is
+ * kept up to date instead of being recomputed, and the tour is only fully
+ * evaluated when a new best tour is recorded. Moves are applied to the route
+ * in place and nothing is allocated while annealing. The moves are drawn from
+ * a SplittableRandom owned by the engine, so a seeded engine repeats its run.
+ * Temperatures are in units of the mean edge length of the initial tour, so
+ * the schedule fits the cities whatever the metric measures them in.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class TSPAnnealer {
+
+    public static final double START_TEMPERATURE = 0.3;
+    public static final double END_TEMPERATURE = 0.01;
+
+    private final TSPRoute route;
+    private final int[] bestTour;
+    private final SplittableRandom random;
+    private final TSPCancellationToken cancellation;
+    private final double temperatureScale;
+    private double currentDistance;
+    private double bestDistance;
+
+    /**
+     * Creates a move engine that anneals the given route in place,
+     * drawing its moves from the given random number stream.
+     *
+     * @param route        The initial route
+     * @param random       The random number stream, not shared with other threads
+     * @param cancellation The token checked after each temperature step
+     */
+    public TSPAnnealer(TSPRoute route, SplittableRandom random, TSPCancellationToken cancellation) {
+        this.route = route;
+        this.bestTour = route.tour.clone();
+        this.random = random;
+        this.cancellation = cancellation;
+        this.currentDistance = route.getTotalDistance();
+        this.bestDistance = this.currentDistance;
+        this.temperatureScale = route.size() > 0 ? this.currentDistance / route.size() : 0;
+    }
+
+    /**
+     * Runs the annealing schedule and leaves the shortest tour seen in the route.
+     * Each temperature step tries as many moves as there are cities.
+     *
+     * @return The route, holding the shortest tour found
+     * @throws java.util.concurrent.CancellationException if the token is cancelled
+     */
+    public TSPRoute anneal() {
+        return anneal(Long.MAX_VALUE, () -> {
+        });
+    }
+
+    /**
+     * Runs the annealing schedule like anneal(), reporting after each temperature
+     * step and stopping early once the time budget runs out.
+     *
+     * @param budgetNanos How long the schedule may run for, in nanoseconds
+     * @param progress    Called after each temperature step
+     * @return The route, holding the shortest tour found
+     * @throws java.util.concurrent.CancellationException if the token is cancelled
+     */
+    public TSPRoute anneal(long budgetNanos, Runnable progress) {
+
+        int n = route.size();
+        long start = System.nanoTime();
+
+        if (n >= 4) {
+            double temperature = getStartTemperature();
+            while (temperature > getEndTemperature() && System.nanoTime() - start < budgetNanos) {
+                cancellation.throwIfCancelled();
+                for (int k = 0; k < n; k++) {
+                    step(temperature);
+                }
+                temperature *= 1 - TSPAlgorithm.COOLING_RATE;
+                progress.run();
+            }
+        }
+
+        return restoreBest();
+
+    }
+
+    /**
+     * Puts the shortest tour seen back into the route.
+     *
+     * @return The route, holding the shortest tour found
+     */
+    public TSPRoute restoreBest() {
+        route.restore(bestTour);
+        currentDistance = bestDistance;
+        return route;
+    }
+
+    /**
+     * Proposes one random move and applies it if the Metropolis criterion accepts it.
+     *
+     * @param temperature The current temperature
+     */
+    public void step(double temperature) {
+
+        int n = route.size();
+        int i = random.nextInt(n);
+        int j = random.nextInt(n);
+        if (i == j) return;
+
+        int lo = Math.min(i, j), hi = Math.max(i, j);
+        double delta;
+        switch (random.nextInt(3)) {
+            case 0:
+                delta = swapDelta(lo, hi);
+                if (!accept(delta, temperature)) return;
+                applySwap(lo, hi);
+                break;
+            case 1:
+                delta = reverseDelta(lo, hi);
+                if (!accept(delta, temperature)) return;
+                if (lo != 0 || hi != n - 1) route.reverse(lo, hi);
+                break;
+            default:
+                if (j == i - 1 || (i == 0 && j == n - 1)) return;
+                delta = insertDelta(i, j);
+                if (!accept(delta, temperature)) return;
+                route.move(i, j);
+                break;
+        }
+
+        currentDistance += delta;
+        if (currentDistance < bestDistance) {
+            currentDistance = route.getTotalDistance();
+            if (currentDistance < bestDistance) {
+                bestDistance = currentDistance;
+                route.snapshot(bestTour);
+            }
+        }
+
+    }
+
+    /**
+     * Gets the temperature the annealing schedule starts at, START_TEMPERATURE
+     * times the mean edge length of the initial tour.
+     *
+     * @return the start temperature
+     */
+    public double getStartTemperature() {
+        return START_TEMPERATURE * temperatureScale;
+    }
+
+    /**
+     * Gets the temperature the annealing schedule ends at, END_TEMPERATURE
+     * times the mean edge length of the initial tour.
+     *
+     * @return the end temperature
+     */
+    public double getEndTemperature() {
+        return END_TEMPERATURE * temperatureScale;
+    }
+
+    /**
+     * Gets the length of the current tour as kept up to date by the moves.
+     *
+     * @return the running tour length
+     */
+    public double getCurrentDistance() {
+        return currentDistance;
+    }
+
+    /**
+     * Gets the length of the best tour recorded so far.
+     *
+     * @return the best tour length
+     */
+    public double getBestDistance() {
+        return bestDistance;
+    }
+
+    /**
+     * Lists the cities of the best tour recorded so far, leaving the route as it is.
+     *
+     * @return the cities in tour order
+     */
+    public List<City> bestCityList() {
+        List<City> connections = new ArrayList<>(bestTour.length);
+        for (int city : bestTour) connections.add(route.cities[city].city);
+        return connections;
+    }
+
+    private boolean accept(double delta, double temperature) {
+        return delta < 0 || Math.exp(-delta / temperature) >= random.nextDouble();
+    }
+
+    private double swapDelta(int i, int j) {
+
+        if (j == i + 1 || (i == 0 && j == route.size() - 1)) return reverseDelta(i, j);
+
+        int a = route.at(i - 1), b = route.tour[i], c = route.at(i + 1);
+        int d = route.at(j - 1), e = route.tour[j], f = route.at(j + 1);
+        return route.distance(a, e) + route.distance(e, c) + route.distance(d, b) + route.distance(b, f)
+                - route.distance(a, b) - route.distance(b, c) - route.distance(d, e) - route.distance(e, f);
+
+    }
+
+    private void applySwap(int i, int j) {
+
+        if (j == i + 1) route.reverse(i, j);
+        else if (i != 0 || j != route.size() - 1) route.swap(i, j);
+
+    }
+
+    private double reverseDelta(int i, int j) {
+
+        if (i == 0 && j == route.size() - 1) return 0;
+
+        int a = route.at(i - 1), b = route.tour[i], c = route.tour[j], d = route.at(j + 1);
+        return route.distance(a, c) + route.distance(b, d) - route.distance(a, b) - route.distance(c, d);
+
+    }
+
+    /**
+     * Scores moving the city at position i to sit right after the city at position j.
+     */
+    private double insertDelta(int i, int j) {
+
+        int p = route.at(i - 1), c = route.tour[i], q = route.at(i + 1);
+        int u = route.tour[j], v = route.at(j + 1);
+        return route.distance(p, q) - route.distance(p, c) - route.distance(c, q)
+                + route.distance(u, c) + route.distance(c, v) - route.distance(u, v);
+
+    }
+
+}
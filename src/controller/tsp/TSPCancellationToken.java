@@ -0,0 +1,62 @@
+package controller.tsp;
+
+import model.Blackboard;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * This class tells long running solver loops when to give up. A token is
+ * cancelled once its solver is stopped and, if it follows data changes, for
+ * as long as the city data has changed since the solver last picked it up.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class TSPCancellationToken {
+
+    private final boolean followDataChanges;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a token that is only cancelled by calling cancel.
+     */
+    public TSPCancellationToken() {
+        this(false);
+    }
+
+    /**
+     * Creates a token.
+     *
+     * @param followDataChanges true to also treat a pending change of the city data as cancelled
+     */
+    public TSPCancellationToken(boolean followDataChanges) {
+        this.followDataChanges = followDataChanges;
+    }
+
+    /**
+     * Cancels the token for good.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Checks if the work using this token should be abandoned.
+     *
+     * @return true if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled || (followDataChanges && Blackboard.getInstance().isDataChanged());
+    }
+
+    /**
+     * Abandons the work using this token if it is cancelled.
+     *
+     * @throws CancellationException if cancelled
+     */
+    public void throwIfCancelled() {
+        if (isCancelled()) throw new CancellationException();
+    }
+
+}
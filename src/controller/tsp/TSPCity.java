@@ -4,7 +4,8 @@ import model.City;
 
 /**
  * This class wraps an existing the city to add functionalities used
- * by some TSP Algorithms
+ * by some TSP Algorithms. Distances are measured with the metric the
+ * city was placed by, which keeps what it needs of the position here.
  *
  * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
  * @version 1.0
@@ -12,21 +13,55 @@ import model.City;
  */
 public class TSPCity {
 
+    public double x;
+    public double y;
     public double longitude;
     public double latitude;
+    public double cosLatitude;
     public City city;
+    public int index = -1;
+    public TSPDistanceOracle oracle;
+    public DistanceMetric metric;
+    private int lastX;
+    private int lastY;
 
     /**
-     * This constructor initialises the city with name, latitude and longitude
+     * This constructor wraps a city and places it by the given metric
      *
-     * @param city:      city
-     * @param latitude:  latitude of the city
-     * @param longitude: longitude of the city
+     * @param city:   city
+     * @param metric: the metric to measure distances with
      */
-    public TSPCity(City city, double latitude, double longitude) {
+    public TSPCity(City city, DistanceMetric metric) {
         this.city = city;
-        this.longitude = longitude * TSPAlgorithm.DEG_TO_RAD;
-        this.latitude = latitude * TSPAlgorithm.DEG_TO_RAD;
+        this.lastX = city.bounds.x;
+        this.lastY = city.bounds.y;
+        place(metric);
+    }
+
+    /**
+     * This method places the city by a metric, which is then used to measure its distances.
+     *
+     * @param metric the metric to measure distances with
+     */
+    public void place(DistanceMetric metric) {
+        this.metric = metric;
+        metric.place(this);
+    }
+
+    /**
+     * This method picks up the latest position of the wrapped city, if it has moved.
+     *
+     * @return true if the city moved since it was last seen
+     */
+    public boolean refresh() {
+
+        if (city.bounds.x == lastX && city.bounds.y == lastY) return false;
+
+        this.lastX = city.bounds.x;
+        this.lastY = city.bounds.y;
+        metric.place(this);
+        return true;
+
     }
 
     /**
@@ -36,10 +71,6 @@ public class TSPCity {
      * @return the distance value
      */
     public double measureDistance(TSPCity otherTspCity) {
-        double delLongitude = (otherTspCity.longitude - this.longitude);
-        double delLatitude = (otherTspCity.latitude - this.latitude);
-        double a = Math.pow(Math.sin(delLatitude / 2D), 2D) +
-                Math.cos(this.latitude) * Math.cos(otherTspCity.latitude) * Math.pow(Math.sin(delLongitude / 2D), 2D);
-        return TSPAlgorithm.KM_TO_MILES * TSPAlgorithm.EARTH_EQ_RAD * 2D * Math.atan2(Math.sqrt(a), Math.sqrt(1D - a));
+        return metric.distance(this, otherTspCity);
     }
 }
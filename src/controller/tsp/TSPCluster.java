@@ -1,15 +1,20 @@
 package controller.tsp;
 
 import controller.Logger;
-import model.Blackboard;
 import model.City;
-import view.App;
 
+import java.awt.*;
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * This class runs the travelling sales person algorithm to find the optimal route between the points.
- * It uses the Simulated Annealing Algorithm.
+ * It uses the Simulated Annealing Algorithm on clusters of nearby cities, solving the clusters
+ * in parallel on the common ForkJoinPool. The cities are split by recursive median partitioning,
+ * into at least MIN_CLUSTERS clusters and as many more as needed to keep each one at about
+ * TARGET_CLUSTER_SIZE cities. The stitched variant joins the cluster tours into one tour.
  *
  * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
  * @version 1.0
@@ -17,17 +22,30 @@ import java.util.*;
  */
 public class TSPCluster extends TSPAlgorithm {
 
-    public TSPRoute tspRoute;
-    public TSPRoute shortestRoute;
     public static final String name = "TSP - Cluster";
+    public static final String stitchedName = "TSP - Cluster (Stitched)";
+    public static final int MIN_CLUSTERS = 4;
+    public static final int TARGET_CLUSTER_SIZE = 250;
+    public final boolean stitch;
 
     /**
-     * Creates an instance of controller.tsp.TSPNearestNbr class initialized
+     * Creates an instance of controller.tsp.TSPCluster class initialized
      * to keep running when requested.
      */
     public TSPCluster() {
-        super(TSPTypes.TSP_CLUSTER);
+        this(false);
+    }
+
+    /**
+     * Creates an instance of controller.tsp.TSPCluster class initialized
+     * to keep running when requested.
+     *
+     * @param stitch true to join the cluster tours into one tour
+     */
+    public TSPCluster(boolean stitch) {
+        super(stitch ? TSPTypes.TSP_CLUSTER_STITCHED : TSPTypes.TSP_CLUSTER);
         this.keepRunning = true;
+        this.stitch = stitch;
     }
 
     /**
@@ -41,107 +59,146 @@ public class TSPCluster extends TSPAlgorithm {
         Logger.getInstance().log("Calculating shortest path using TSP Cluster");
 
         List<List<City>> path = new ArrayList<>();
+        List<TSPCity> tspCities = oracle.sync(cityList);
 
         if (cityList.isEmpty()) {
-            Blackboard.getInstance().path = path;
-            Logger.getInstance().log("Path updated.");
-            setChanged();
-            notifyObservers();
+            publishPath(path);
             return;
         }
 
+        int clusters = Math.max(MIN_CLUSTERS, (tspCities.size() + TARGET_CLUSTER_SIZE - 1) / TARGET_CLUSTER_SIZE);
         List<List<TSPCity>> tspClusterList = new ArrayList<>();
-        tspClusterList.add(new ArrayList<>());
-        tspClusterList.add(new ArrayList<>());
-        tspClusterList.add(new ArrayList<>());
-        tspClusterList.add(new ArrayList<>());
-
-        cityList.forEach(city -> {
-            if (city.bounds.x < App.workspaceWidth / 2 && city.bounds.y > App.workspaceHeight / 2) {
-                tspClusterList.get(0).add(new TSPCity(city, city.bounds.x, city.bounds.y));
-            } else if (city.bounds.x > App.workspaceWidth / 2 && city.bounds.y > App.workspaceHeight / 2) {
-                tspClusterList.get(1).add(new TSPCity(city, city.bounds.x, city.bounds.y));
-            } else if (city.bounds.x > App.workspaceWidth / 2 && city.bounds.y < App.workspaceHeight / 2) {
-                tspClusterList.get(2).add(new TSPCity(city, city.bounds.x, city.bounds.y));
-            } else {
-                tspClusterList.get(3).add(new TSPCity(city, city.bounds.x, city.bounds.y));
+        partition(tspCities.toArray(new TSPCity[0]), 0, tspCities.size(), Math.min(clusters, tspCities.size()),
+                tspClusterList);
+
+        List<Integer> seams = new ArrayList<>();
+        List<TSPCity> tour = chain(calculateRoutes(tspClusterList), seams);
+        if (stitch) {
+            path.add(stitch(tour, seams).toCityList());
+        } else {
+            for (int k = 0; k < seams.size(); k += 2) {
+                List<City> cluster = new ArrayList<>();
+                for (TSPCity tspCity : tour.subList(seams.get(k), seams.get(k + 1) + 1)) cluster.add(tspCity.city);
+                path.add(cluster);
             }
-        });
+        }
 
-        calculateRoute(path, tspClusterList);
-        Blackboard.getInstance().path = path;
-        Logger.getInstance().log("Path updated.");
-        setChanged();
-        notifyObservers();
+        publishPath(path);
 
     }
 
-    private void calculateRoute(List<List<City>> path, List<List<TSPCity>> tspClusterList) {
+    /**
+     * Splits cities[lo..hi) into the given number of clusters by cutting across its
+     * widest side, with each half getting cities in proportion to its clusters.
+     * The clusters are added in the order of the cuts, so neighbouring clusters
+     * tend to be next to each other.
+     */
+    private void partition(TSPCity[] cities, int lo, int hi, int clusters, List<List<TSPCity>> clusterList) {
 
-        for (List<TSPCity> tspCities : tspClusterList) {
-            tspRoute = new TSPRoute(new ArrayList<>());
-            tspRoute.cities = new ArrayList<>();
-            tspRoute.cities.addAll(tspCities);
-            findRoute();
-            List<City> connections = new ArrayList<>();
-            shortestRoute.cities.forEach(tspCity -> {
-                connections.add(tspCity.city);
-            });
-            path.add(connections);
+        if (clusters <= 1) {
+            clusterList.add(new ArrayList<>(Arrays.asList(cities).subList(lo, hi)));
+            return;
         }
 
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = lo; i < hi; i++) {
+            Rectangle bounds = cities[i].city.bounds;
+            minX = Math.min(minX, bounds.x);
+            maxX = Math.max(maxX, bounds.x);
+            minY = Math.min(minY, bounds.y);
+            maxY = Math.max(maxY, bounds.y);
+        }
+
+        Comparator<TSPCity> order = maxX - minX >= maxY - minY
+                ? Comparator.comparingInt((TSPCity tspCity) -> tspCity.city.bounds.x)
+                : Comparator.comparingInt((TSPCity tspCity) -> tspCity.city.bounds.y);
+        Arrays.sort(cities, lo, hi, order.thenComparingInt(tspCity -> tspCity.index));
+
+        int lowerClusters = clusters / 2;
+        int mid = lo + (int) ((long) (hi - lo) * lowerClusters / clusters);
+        partition(cities, lo, mid, lowerClusters, clusterList);
+        partition(cities, mid, hi, clusters - lowerClusters, clusterList);
+
     }
 
-    private void findRoute() {
+    /**
+     * Anneals the nearest neighbour tour of every cluster as its own task and
+     * returns the routes in cluster order. Each annealer draws from a stream split off one seeded with seed,
+     * in cluster order, so the tours do not depend on how the tasks are
+     * scheduled. The annealers give up once the token is cancelled.
+     */
+    private List<TSPRoute> calculateRoutes(List<List<TSPCity>> tspClusterList) {
 
-        shortestRoute = createTspRoute(tspRoute);
+        SplittableRandom random = new SplittableRandom(seed);
+        List<ForkJoinTask<TSPRoute>> tasks = new ArrayList<>();
+        for (List<TSPCity> tspCities : tspClusterList) {
+            SplittableRandom clusterRandom = random.split();
+            tasks.add(ForkJoinPool.commonPool().submit(
+                    () -> new TSPAnnealer(new TSPRoute(TSPNearestNbr.nearestNeighbourTour(tspCities, cancellation)),
+                            clusterRandom, cancellation).anneal()
+            ));
+        }
 
-        if (tspRoute.cities.size() <= 1) return;
+        List<TSPRoute> routes = new ArrayList<>();
+        for (ForkJoinTask<TSPRoute> task : tasks) {
+            routes.add(task.join());
+        }
+        return routes;
 
-        TSPRoute adjacentRoute;
-        int initialTemperature = 999;
+    }
 
-        while (initialTemperature > TSPAlgorithm.TEMP_MIN) {
-            TSPRoute route = createTspRoute(tspRoute);
-            adjacentRoute = obtainAdjacentRoute(route);
-            if (tspRoute.getTotalDistance() < shortestRoute.getTotalDistance()) {
-                shortestRoute = createTspRoute(tspRoute);
+    /**
+     * Lists the cluster tours one after the other. Each tour is entered at its
+     * city nearest to where the previous one ended and left by dropping the
+     * longer of that city's two tour edges, so the clusters read as one tour.
+     * The positions where each tour starts and ends are added to seams.
+     */
+    private List<TSPCity> chain(List<TSPRoute> routes, List<Integer> seams) {
+
+        List<TSPCity> tour = new ArrayList<>();
+        TSPCity last = null;
+
+        for (TSPRoute route : routes) {
+            int start = route.tour[0];
+            if (last != null) {
+                double nearest = Double.MAX_VALUE;
+                for (int city = 0; city < route.size(); city++) {
+                    double distance = route.metric.comparableDistance(last, route.cities[city]);
+                    if (distance < nearest) {
+                        nearest = distance;
+                        start = city;
+                    }
+                }
             }
-            if (acceptRoute(tspRoute.getTotalDistance(), adjacentRoute.getTotalDistance(), initialTemperature)) {
-                tspRoute = createTspRoute(adjacentRoute);
+
+            boolean forward = route.size() < 3
+                    || route.distance(start, route.prev(start)) >= route.distance(start, route.next(start));
+            seams.add(tour.size());
+            int city = start;
+            for (int k = 0; k < route.size(); k++) {
+                tour.add(route.cities[city]);
+                city = forward ? route.next(city) : route.prev(city);
             }
-            initialTemperature *= 1 - TSPAlgorithm.COOLING_RATE;
+            seams.add(tour.size() - 1);
+            last = tour.get(tour.size() - 1);
         }
+        return tour;
 
     }
 
-    private TSPRoute createTspRoute(TSPRoute tspRoute) {
-        TSPRoute route = new TSPRoute(new ArrayList<>());
-        route.cities = new LinkedList<>();
-        route.cities.addAll(tspRoute.cities);
-        return route;
-    }
+    /**
+     * Joins the chained cluster tours into one tour, cleaning up the seams
+     * with the 2-opt local search.
+     */
+    private TSPRoute stitch(List<TSPCity> tour, List<Integer> seams) {
 
-    private boolean acceptRoute(double currentDistance, double adjacentDistance, double temperature) {
-        double acceptanceProb = 1.0;
-        if (adjacentDistance >= currentDistance) {
-            acceptanceProb = Math.exp(-(adjacentDistance - currentDistance) / temperature);
-        }
-        double random = Math.random();
-        return acceptanceProb >= random;
-    }
+        TSPRoute stitched = new TSPRoute(tour);
+        TSPLocalSearch localSearch = new TSPLocalSearch(stitched);
+        for (int seam : seams) localSearch.push(seam);
+        localSearch.optimise(cancellation);
+        return stitched;
 
-    private TSPRoute obtainAdjacentRoute(TSPRoute route) {
-        int x1 = 0, x2 = 0;
-        while (x1 == x2) {
-            x1 = (int) (route.cities.size() * Math.random()); //1 * 0.121241251313 = 0.21345235235 -> 0
-            x2 = (int) (route.cities.size() * Math.random());
-        }
-        TSPCity city1 = route.cities.get(x1);
-        TSPCity city2 = route.cities.get(x2);
-        route.cities.set(x2, city1);
-        route.cities.set(x1, city2);
-        return route;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,279 @@
+package controller.tsp;
+
+import model.City;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This singleton class answers the distance between any two cities for every
+ * TSP algorithm. Runs that solve apart from the app, such as batch runs, each
+ * make an oracle of their own instead. It keeps one TSPCity wrapper per city
+ * (keyed on the city's identity) across solves. Distances of a cheap metric are
+ * measured as they are asked for and never stored. Those of a costly metric are
+ * kept: up to MATRIX_THRESHOLD cities every pair is held in a flat
+ * upper-triangular matrix, and on each sync only the rows of cities whose
+ * bounds changed are refreshed. Beyond that, they are kept in bounded LRU pair
+ * caches split into CACHE_STRIPES with a lock each, so solver threads measuring
+ * at once seldom wait for one another.
+ * Every distance is measured with the oracle's metric, Euclidean unless set.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class TSPDistanceOracle {
+
+    public static final int MATRIX_THRESHOLD = 4096; //about 32 MB of floats
+    public static final int CACHE_CAPACITY = 1 << 20; //about 30 MB of entries
+    public static final int CACHE_STRIPES = 16; //picked by the top 4 bits of a pair's hash
+
+    private static TSPDistanceOracle _instance;
+
+    private final Map<City, TSPCity> wrappers;
+    private TSPCity[] slots;
+    private int[] generations;
+    private boolean[] dirty;
+    private int[] freeSlots;
+    private int freeCount;
+    private int highWater;
+    private float[] matrix;
+    private int matrixSlots;
+    private volatile TSPPairCache[] caches;
+    private DistanceMetric metric;
+
+    /**
+     * Creates an oracle of its own, not shared with the app's TSP algorithms.
+     */
+    public TSPDistanceOracle() {
+        this.wrappers = new IdentityHashMap<>();
+        this.slots = new TSPCity[16];
+        this.generations = new int[16];
+        this.dirty = new boolean[16];
+        this.freeSlots = new int[16];
+        this.metric = DistanceMetric.EUCLIDEAN;
+    }
+
+    /**
+     * This method fetches the only instance of the oracle.
+     */
+    public static synchronized TSPDistanceOracle getInstance() {
+        if (_instance == null) _instance = new TSPDistanceOracle();
+        return _instance;
+    }
+
+    /**
+     * Brings the oracle up to date with the given cities. Wrappers of cities
+     * that are no longer present are dropped, new cities get a wrapper, and the
+     * distances of cities that moved are refreshed.
+     *
+     * @param cityList The cities about to be solved
+     * @return The wrappers of the given cities, in the same order
+     */
+    public synchronized List<TSPCity> sync(List<City> cityList) {
+
+        List<TSPCity> tspCities = new ArrayList<>(cityList.size());
+        boolean[] seen = new boolean[highWater + cityList.size()];
+
+        for (City city : cityList) {
+            TSPCity tspCity = wrappers.get(city);
+            if (tspCity == null) {
+                tspCity = new TSPCity(city, metric);
+                tspCity.oracle = this;
+                tspCity.index = allocate(tspCity);
+                wrappers.put(city, tspCity);
+            } else if (tspCity.refresh()) {
+                markDirty(tspCity.index);
+            }
+            seen[tspCity.index] = true;
+            tspCities.add(tspCity);
+        }
+
+        for (int i = 0; i < highWater; i++) {
+            if (slots[i] != null && !seen[i]) release(i);
+        }
+
+        if (wrappers.isEmpty()) reset();
+        else refreshTables();
+
+        Arrays.fill(dirty, 0, highWater, false);
+        return tspCities;
+
+    }
+
+    /**
+     * Gets the metric the distances are measured with.
+     *
+     * @return the metric
+     */
+    public synchronized DistanceMetric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Sets the metric the distances are measured with. The cities the oracle
+     * knows are placed by the new metric and their distances measured again.
+     *
+     * @param metric The metric
+     */
+    public synchronized void setMetric(DistanceMetric metric) {
+
+        if (metric == this.metric) return;
+
+        this.metric = metric;
+        for (int i = 0; i < highWater; i++) {
+            if (slots[i] == null) continue;
+            slots[i].place(metric);
+            markDirty(i);
+        }
+        refreshTables();
+        Arrays.fill(dirty, 0, highWater, false);
+
+    }
+
+    /**
+     * Finds the wrapper the oracle keeps for a city.
+     *
+     * @param city The city
+     * @return the wrapper, null if the city was not in the last synced list
+     */
+    public synchronized TSPCity lookup(City city) {
+        return wrappers.get(city);
+    }
+
+    /**
+     * Measures the distance between two cities, served from the matrix or the
+     * pair caches when both cities are known to the oracle.
+     *
+     * @param a The first city
+     * @param b The second city
+     * @return the distance between them
+     */
+    public double distance(TSPCity a, TSPCity b) {
+
+        int i = a.index, j = b.index;
+        if (i == j) return i < 0 ? a.measureDistance(b) : 0;
+        if (i < 0 || j < 0) return a.measureDistance(b);
+
+        int lo = Math.min(i, j), hi = Math.max(i, j);
+        float[] matrix = this.matrix;
+        if (matrix != null && hi < matrixSlots) return matrix[triangle(lo, hi)];
+
+        TSPPairCache[] caches = this.caches;
+        if (caches == null) return a.measureDistance(b);
+
+        long key = ((long) lo << 32) | hi;
+        long stamp = ((long) generations[lo] << 32) | (generations[hi] & 0xFFFFFFFFL);
+        //the stripe is picked by the top bits of the hash, which the caches' buckets do not use
+        TSPPairCache cache = caches[(int) ((key * 0x9E3779B97F4A7C15L) >>> 60)];
+        synchronized (cache) {
+            float value = cache.get(key, stamp);
+            if (Float.isNaN(value)) {
+                value = (float) a.measureDistance(b);
+                cache.put(key, stamp, value);
+            }
+            return value;
+        }
+
+    }
+
+    private static int triangle(int lo, int hi) {
+        return hi * (hi - 1) / 2 + lo;
+    }
+
+    private int allocate(TSPCity tspCity) {
+
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : highWater++;
+
+        if (slot >= slots.length) {
+            int capacity = slots.length * 2;
+            slots = Arrays.copyOf(slots, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+            dirty = Arrays.copyOf(dirty, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+        }
+
+        slots[slot] = tspCity;
+        markDirty(slot);
+        return slot;
+
+    }
+
+    private void release(int slot) {
+        wrappers.remove(slots[slot].city);
+        slots[slot].index = -1;
+        slots[slot] = null;
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void markDirty(int slot) {
+        dirty[slot] = true;
+        generations[slot]++;
+    }
+
+    private void reset() {
+        Arrays.fill(slots, 0, highWater, null);
+        freeCount = 0;
+        highWater = 0;
+        caches = null;
+    }
+
+    /**
+     * Keeps the matrix or the pair caches up to date if the metric is costly,
+     * and drops them if it is cheap enough to measure every time.
+     */
+    private void refreshTables() {
+
+        if (metric.isCostly() && highWater <= MATRIX_THRESHOLD) {
+            refreshMatrix();
+        } else {
+            matrix = null;
+            matrixSlots = 0;
+        }
+        refreshCaches();
+
+    }
+
+    /**
+     * Makes the pair caches if the metric is costly and there are too many
+     * cities for the matrix, and drops them otherwise.
+     */
+    private void refreshCaches() {
+
+        if (!metric.isCostly() || highWater <= MATRIX_THRESHOLD) {
+            caches = null;
+        } else if (caches == null) {
+            TSPPairCache[] stripes = new TSPPairCache[CACHE_STRIPES];
+            for (int i = 0; i < CACHE_STRIPES; i++) stripes[i] = new TSPPairCache(CACHE_CAPACITY / CACHE_STRIPES);
+            caches = stripes;
+        }
+
+    }
+
+    private void refreshMatrix() {
+
+        if (highWater > matrixSlots) {
+            int newSlots = Math.min(MATRIX_THRESHOLD, Math.max(highWater, matrixSlots * 2));
+            float[] newMatrix = new float[triangle(0, newSlots)];
+            if (matrix != null) System.arraycopy(matrix, 0, newMatrix, 0, matrix.length);
+            matrix = newMatrix;
+            matrixSlots = newSlots;
+        }
+
+        for (int i = 0; i < highWater; i++) {
+            if (!dirty[i] || slots[i] == null) continue;
+            TSPCity a = slots[i];
+            for (int k = 0; k < highWater; k++) {
+                TSPCity b = slots[k];
+                //pairs of two dirty cities are filled in by the one with the larger slot
+                if (k == i || b == null || (dirty[k] && k > i)) continue;
+                matrix[triangle(Math.min(i, k), Math.max(i, k))] = (float) a.measureDistance(b);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,289 @@
+package controller.tsp;
+
+/**
+ * This class is a k-d tree over a set of points, used to find the nearest
+ * cities of a city without comparing it against every other city. Points can
+ * be removed, which the nearest neighbour tour uses to drop visited cities.
+ * The tree is laid out implicitly in one array: each node is the median of
+ * its range, with the lower half to its left and the upper half to its right.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class TSPKdTree {
+
+    private static final double ROUNDING_SLACK = 1e-6;
+
+    private final double[][] coordinates;
+    private final int[] points;
+    private final byte[] splitDims;
+    private final int[] slots;
+    private final int[] alive;
+    private final boolean[] removed;
+
+    private int[] heap;
+    private double[] heapDistances;
+    private int heapSize;
+    private int bestPoint;
+    private double bestDistance;
+    private double bestBound;
+
+    /**
+     * Builds the tree in O(n log n).
+     *
+     * @param coordinates The coordinates of the points, one array per dimension
+     */
+    public TSPKdTree(double[]... coordinates) {
+
+        this.coordinates = coordinates;
+        int n = coordinates[0].length;
+        this.points = new int[n];
+        this.splitDims = new byte[n];
+        this.slots = new int[n];
+        this.alive = new int[n];
+        this.removed = new boolean[n];
+        for (int i = 0; i < n; i++) points[i] = i;
+        build(0, n);
+        for (int i = 0; i < n; i++) slots[points[i]] = i;
+
+    }
+
+    private void build(int lo, int hi) {
+
+        if (hi - lo <= 0) return;
+
+        int dim = widestDim(lo, hi);
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, coordinates[dim]);
+        splitDims[mid] = (byte) dim;
+        alive[mid] = hi - lo;
+        build(lo, mid);
+        build(mid + 1, hi);
+
+    }
+
+    private int widestDim(int lo, int hi) {
+
+        int widest = 0;
+        double widestSpread = -1;
+        for (int dim = 0; dim < coordinates.length; dim++) {
+            double[] values = coordinates[dim];
+            double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+            for (int i = lo; i < hi; i++) {
+                double v = values[points[i]];
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = dim;
+            }
+        }
+        return widest;
+
+    }
+
+    /**
+     * Quickselect: reorders points[lo..hi] so the k-th smallest value is at k.
+     */
+    private void select(int lo, int hi, int k, double[] values) {
+
+        while (hi > lo) {
+            double pivot = values[points[(lo + hi) >>> 1]];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (values[points[i]] < pivot) i++;
+                while (values[points[j]] > pivot) j--;
+                if (i <= j) {
+                    int temp = points[i];
+                    points[i++] = points[j];
+                    points[j--] = temp;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+
+    }
+
+    /**
+     * Finds the k points nearest to a point of the tree, the point itself excluded.
+     *
+     * @param point The point number
+     * @param k     The number of neighbours wanted
+     * @return The neighbours, nearest first, fewer than k if the tree is small
+     */
+    public int[] nearest(int point, int k) {
+
+        if (heap == null || heap.length < k) {
+            heap = new int[k];
+            heapDistances = new double[k];
+        }
+        heapSize = 0;
+
+        search(0, points.length, point, k);
+
+        int[] neighbours = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            neighbours[i] = heap[0];
+            pop();
+        }
+        return neighbours;
+
+    }
+
+    /**
+     * Finds the k nearest neighbours of every point.
+     *
+     * @param k The number of neighbours per point
+     * @return The neighbour lists, nearest first
+     */
+    public int[][] neighbourLists(int k) {
+        int[][] lists = new int[points.length][];
+        for (int i = 0; i < points.length; i++) lists[i] = nearest(i, k);
+        return lists;
+    }
+
+    /**
+     * Removes a point from the tree, in O(log n).
+     *
+     * @param point The point number
+     */
+    public void remove(int point) {
+
+        if (removed[point]) return;
+        removed[point] = true;
+
+        int slot = slots[point];
+        int lo = 0, hi = points.length;
+        while (hi > lo) {
+            int mid = (lo + hi) >>> 1;
+            alive[mid]--;
+            if (slot == mid) return;
+            if (slot < mid) hi = mid;
+            else lo = mid + 1;
+        }
+
+    }
+
+    /**
+     * Finds the point nearest to a given one among the points not yet removed.
+     * Candidates are compared by the route's distance, ties going to the lower
+     * point number; the tree geometry is only used to skip far away subtrees.
+     *
+     * @param point The point number, which may have been removed
+     * @param route The route whose distance decides between candidates
+     * @return The nearest remaining point, or -1 if none is left
+     */
+    public int nearestRemaining(int point, TSPRoute route) {
+        bestPoint = -1;
+        bestDistance = Double.MAX_VALUE;
+        bestBound = Double.MAX_VALUE;
+        searchRemaining(0, points.length, point, route);
+        return bestPoint;
+    }
+
+    private void searchRemaining(int lo, int hi, int point, TSPRoute route) {
+
+        if (hi <= lo) return;
+
+        int mid = (lo + hi) >>> 1;
+        if (alive[mid] == 0) return;
+
+        int node = points[mid];
+        if (node != point && !removed[node]) {
+            double squared = squaredDistance(node, point);
+            if (squared <= bestBound) {
+                double distance = route.distance(point, node);
+                if (distance < bestDistance || (distance == bestDistance && node < bestPoint)) {
+                    bestPoint = node;
+                    bestDistance = distance;
+                    //allow for the rounding of stored distances when pruning
+                    bestBound = squared * (1 + ROUNDING_SLACK) + Double.MIN_NORMAL;
+                }
+            }
+        }
+
+        int dim = splitDims[mid];
+        double diff = coordinates[dim][point] - coordinates[dim][node];
+        if (diff < 0) {
+            searchRemaining(lo, mid, point, route);
+            if (diff * diff <= bestBound) searchRemaining(mid + 1, hi, point, route);
+        } else {
+            searchRemaining(mid + 1, hi, point, route);
+            if (diff * diff <= bestBound) searchRemaining(lo, mid, point, route);
+        }
+
+    }
+
+    private void search(int lo, int hi, int point, int k) {
+
+        if (hi <= lo) return;
+
+        int mid = (lo + hi) >>> 1;
+        int node = points[mid];
+        if (node != point) offer(node, squaredDistance(node, point), k);
+
+        int dim = splitDims[mid];
+        double diff = coordinates[dim][point] - coordinates[dim][node];
+        if (diff < 0) {
+            search(lo, mid, point, k);
+            if (heapSize < k || diff * diff < heapDistances[0]) search(mid + 1, hi, point, k);
+        } else {
+            search(mid + 1, hi, point, k);
+            if (heapSize < k || diff * diff < heapDistances[0]) search(lo, mid, point, k);
+        }
+
+    }
+
+    private double squaredDistance(int a, int b) {
+        double sum = 0;
+        for (double[] values : coordinates) {
+            double diff = values[a] - values[b];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    private void offer(int point, double distance, int k) {
+
+        if (heapSize < k) {
+            int i = heapSize++;
+            while (i > 0 && heapDistances[(i - 1) / 2] < distance) {
+                heap[i] = heap[(i - 1) / 2];
+                heapDistances[i] = heapDistances[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            heap[i] = point;
+            heapDistances[i] = distance;
+        } else if (distance < heapDistances[0]) {
+            siftDown(point, distance);
+        }
+
+    }
+
+    private void pop() {
+        heapSize--;
+        if (heapSize > 0) siftDown(heap[heapSize], heapDistances[heapSize]);
+    }
+
+    private void siftDown(int point, double distance) {
+
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapDistances[child + 1] > heapDistances[child]) child++;
+            if (heapDistances[child] <= distance) break;
+            heap[i] = heap[child];
+            heapDistances[i] = heapDistances[child];
+            i = child;
+        }
+        heap[i] = point;
+        heapDistances[i] = distance;
+
+    }
+
+}
@@ -0,0 +1,200 @@
+package controller.tsp;
+
+import controller.Logger;
+import model.City;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class runs the travelling sales person algorithm using an iterated
+ * Lin-Kernighan search. The nearest neighbour tour is first brought to a local
+ * optimum, then random double-bridge kicks are applied and repaired until the
+ * time budget runs out, keeping the best tour seen. A kick that does not pay
+ * off is undone by replaying the route's journal of reversals backwards, so it
+ * costs as much as the cities it moved rather than the whole tour. Only nearest neighbour
+ * lists are kept per city, so memory grows linearly with the number of cities.
+ * It runs in anytime mode: better tours are published while it runs, and the
+ * kicks go on at low priority after the time budget until the city data changes
+ * or the tour stops getting shorter.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class TSPLinKernighan extends TSPAlgorithm {
+
+    public static final String name = "TSP - Lin-Kernighan";
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 10000;
+    public static final int MAX_KICK_SEGMENT = 50;
+    public static final int REMEASURE_KICKS = 1000;
+
+    public long timeBudgetMillis;
+    private SplittableRandom random;
+    private TSPRoute route;
+    private TSPLinKernighanSearch search;
+    private double bestDistance;
+    private TSPRoute repairedRoute;
+
+    /**
+     * Creates an instance of TSPLinKernighan class with the default time budget.
+     */
+    public TSPLinKernighan() {
+        this(DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Creates an instance of TSPLinKernighan class initialized
+     * to keep running until requested to stop.
+     *
+     * @param timeBudgetMillis How long each calculation may run for
+     */
+    public TSPLinKernighan(long timeBudgetMillis) {
+        super(TSPTypes.TSP_LIN_KERNIGHAN);
+        this.keepRunning = true;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.random = new SplittableRandom(seed);
+        this.anytime = true;
+        this.incrementalRepair = true;
+    }
+
+    /**
+     * Implementation of the 'calculate' method inherited.
+     *
+     * @param cityList The list of cities to calculate the path for
+     */
+    @Override
+    public void calculate(List<City> cityList) {
+
+        Logger.getInstance().log("Calculating shortest path using TSP Lin-Kernighan");
+
+        long deadline = System.nanoTime() + timeBudgetMillis * 1000000L;
+        random = new SplittableRandom(seed);
+        route = null;
+        repairedRoute = null;
+        List<List<City>> path = new ArrayList<>();
+        List<TSPCity> tspCities = oracle.sync(cityList);
+
+        if (cityList.isEmpty()) {
+            publishPath(path);
+            return;
+        }
+
+        TSPRoute nearestNbrRoute = new TSPRoute(TSPNearestNbr.nearestNeighbourTour(tspCities, cancellation));
+        if (anytime) publish(nearestNbrRoute.getTotalDistance(), nearestNbrRoute.toCityList());
+
+        prepare(nearestNbrRoute);
+        iterate(deadline);
+        publish(bestDistance, route.toCityList());
+
+    }
+
+    /**
+     * Keeps kicking the best tour for another slice of time, publishing it if it got shorter.
+     *
+     * @return false if the route is too small to kick
+     */
+    @Override
+    protected boolean refine() {
+
+        if (repairedRoute != null) {
+            prepare(repairedRoute);
+            repairedRoute = null;
+        }
+        if (route == null || route.size() < 8) return false;
+
+        iterate(System.nanoTime() + REFINE_SLICE_NANOS);
+        if (bestDistance < getPublishedDistance()) publish(bestDistance, route.toCityList());
+        return true;
+
+    }
+
+    /**
+     * Carries on refining from a repaired tour. The search is set up again on
+     * the first refinement, so a burst of repairs does not pay for it each time.
+     *
+     * @param route The repaired route
+     */
+    @Override
+    protected void resume(TSPRoute route) {
+        this.route = null;
+        this.repairedRoute = route;
+    }
+
+    /**
+     * Sets up the search on a route and brings it to a local optimum.
+     */
+    private void prepare(TSPRoute route) {
+
+        this.route = route;
+        search = new TSPLinKernighanSearch(route,
+                new TSPKdTree(route.embedding()).neighbourLists(TSPLocalSearch.NEIGHBOURS));
+        search.pushAll();
+        search.optimise(cancellation);
+        bestDistance = route.getTotalDistance();
+
+    }
+
+    /**
+     * Kicks and repairs the best tour until the deadline passes, leaving the
+     * best tour in the route. The best length is kept up to date from the
+     * gains and measured again every REMEASURE_KICKS improving kicks and at
+     * the end, so rounding errors do not add up. Gives up once the token is
+     * cancelled.
+     */
+    private void iterate(long deadline) {
+
+        if (route.size() < 8) return;
+
+        int improvingKicks = 0;
+        while (System.nanoTime() - deadline < 0) {
+            cancellation.throwIfCancelled();
+            route.record();
+            search.gain = kick(route, search);
+            search.optimise();
+            if (search.gain > 1e-7) {
+                route.commit();
+                bestDistance -= search.gain;
+                if (++improvingKicks % REMEASURE_KICKS == 0) bestDistance = route.getTotalDistance();
+                publishIfDue(bestDistance, route::toCityList);
+            } else {
+                route.rollback();
+            }
+        }
+        bestDistance = route.getTotalDistance();
+
+    }
+
+    /**
+     * Applies a double-bridge move by swapping two short consecutive segments,
+     * and queues the cities around the changed edges.
+     *
+     * @return The gain of the kick, usually negative
+     */
+    private double kick(TSPRoute route, TSPLocalSearch search) {
+
+        int n = route.size();
+        int maxLength = Math.min(MAX_KICK_SEGMENT, (n - 2) / 3);
+        int firstLength = 1 + random.nextInt(maxLength);
+        int secondLength = 1 + random.nextInt(maxLength);
+        int i = 1 + random.nextInt(n - firstLength - secondLength - 1);
+        int j = i + firstLength, k = j + secondLength;
+
+        int a = route.tour[i - 1], b1 = route.tour[i], b2 = route.tour[j - 1];
+        int c1 = route.tour[j], c2 = route.tour[k - 1], d = route.tour[k];
+        double gain = route.distance(a, b1) + route.distance(b2, c1) + route.distance(c2, d)
+                - route.distance(a, c1) - route.distance(c2, b1) - route.distance(b2, d);
+
+        route.swapSegments(i, firstLength, secondLength);
+        search.push(a);
+        search.push(b1);
+        search.push(b2);
+        search.push(c1);
+        search.push(c2);
+        search.push(d);
+        return gain;
+
+    }
+
+}
@@ -0,0 +1,153 @@
+package controller.tsp;
+
+/**
+ * This class adds a variable-depth Lin-Kernighan step to the local search.
+ * Starting from a tour edge (t1, t2), it chains 2-opt moves that each keep t1
+ * fixed, as long as the running gain stays positive, and keeps the prefix of
+ * the chain that shortens the tour the most. Edges added by the chain are never
+ * removed again within it. When no chain improves the tour, the 2-opt and
+ * Or-opt (3-opt segment insertion) moves of the local search are tried.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class TSPLinKernighanSearch extends TSPLocalSearch {
+
+    public static final int MAX_DEPTH = 6;
+    public static final int BREADTH = 3;
+    private static final double EPSILON = 1e-7;
+
+    private final int[][] moves;
+
+    /**
+     * Creates a Lin-Kernighan search on the given route.
+     *
+     * @param route      The route to improve
+     * @param neighbours The nearest neighbours of each city, nearest first
+     */
+    public TSPLinKernighanSearch(TSPRoute route, int[][] neighbours) {
+        super(route, neighbours);
+        this.moves = new int[MAX_DEPTH][3];
+    }
+
+    /**
+     * Looks for an improving move around a city: the cheap 2-opt and Or-opt
+     * moves first, then a Lin-Kernighan chain.
+     *
+     * @param t1 The city number
+     * @return true if a move was applied
+     */
+    @Override
+    public boolean improve(int t1) {
+
+        if (super.improve(t1)) return true;
+
+        for (int dir = 0; dir < 2; dir++) {
+            int t2 = dir == 0 ? route.next(t1) : route.prev(t1);
+            double removed = route.distance(t1, t2);
+            int tried = 0;
+
+            for (int t3 : neighbours(t2)) {
+                if (removed - route.distance(t2, t3) <= EPSILON || tried == BREADTH) break;
+                if (t3 == t1 || t3 == route.next(t2) || t3 == route.prev(t2)) continue;
+                tried++;
+                if (chain(t1, t2, t3)) return true;
+            }
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Runs one chain that starts by removing (t1, t2) and adding (t2, t3),
+     * applying the moves tentatively and rolling back what does not pay off.
+     */
+    private boolean chain(int t1, int t2, int t3) {
+
+        double openGain = route.distance(t1, t2);
+        double bestGain = 0;
+        int bestDepth = 0;
+        int depth = 0;
+
+        while (true) {
+            int t4 = route.next(t1) == t2 ? route.prev(t3) : route.next(t3);
+            if (t4 == t2 || t4 == t1 || wasAdded(t3, t4, depth)) break;
+
+            openGain += route.distance(t3, t4) - route.distance(t2, t3);
+            exchange(t1, t2, t4, t3);
+            moves[depth][0] = t2;
+            moves[depth][1] = t3;
+            moves[depth][2] = t4;
+            depth++;
+
+            double closedGain = openGain - route.distance(t4, t1);
+            if (closedGain > bestGain + EPSILON) {
+                bestGain = closedGain;
+                bestDepth = depth;
+            }
+
+            if (depth == MAX_DEPTH) break;
+
+            t2 = t4;
+            t3 = nextStep(t1, t2, openGain, depth);
+            if (t3 < 0) break;
+        }
+
+        while (depth > bestDepth) {
+            depth--;
+            exchange(t1, moves[depth][2], moves[depth][0], moves[depth][1]);
+        }
+
+        if (bestDepth == 0) return false;
+
+        gain += bestGain;
+        push(t1);
+        for (int i = 0; i < bestDepth; i++) {
+            push(moves[i][0]);
+            push(moves[i][1]);
+            push(moves[i][2]);
+        }
+        return true;
+
+    }
+
+    /**
+     * Picks the neighbour of t2 to connect to next, the one that keeps the
+     * gain positive and has the longest edge to break behind it.
+     */
+    private int nextStep(int t1, int t2, double openGain, int depth) {
+
+        boolean forward = route.next(t1) == t2;
+        int best = -1;
+        double bestValue = -Double.MAX_VALUE;
+
+        for (int t3 : neighbours(t2)) {
+            double added = route.distance(t2, t3);
+            if (openGain - added <= EPSILON) break;
+            if (t3 == t1 || t3 == route.next(t2) || t3 == route.prev(t2)) continue;
+
+            int t4 = forward ? route.prev(t3) : route.next(t3);
+            if (t4 == t1 || wasAdded(t3, t4, depth)) continue;
+
+            double value = route.distance(t3, t4) - added;
+            if (value > bestValue) {
+                bestValue = value;
+                best = t3;
+            }
+        }
+
+        return best;
+
+    }
+
+    private boolean wasAdded(int a, int b, int depth) {
+        for (int i = 0; i < depth; i++) {
+            int u = moves[i][0], v = moves[i][1];
+            if ((u == a && v == b) || (u == b && v == a)) return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,240 @@
+package controller.tsp;
+
+/**
+ * This class improves a route in place with 2-opt and Or-opt moves until no
+ * improving move is left. Candidate moves only connect a city to one of its
+ * nearest neighbours, and don't-look bits keep each pass to the cities around
+ * recent improvements: only cities in the work queue are looked at, and a city
+ * is queued again only when one of its tour edges changes.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class TSPLocalSearch {
+
+    public static final int NEIGHBOURS = 8;
+    public static final int MAX_SEGMENT = 3;
+    public static final int CANCEL_CHECK_INTERVAL = 1024;
+    private static final double EPSILON = 1e-7;
+
+    public final TSPRoute route;
+    public final int[][] neighbours;
+    public double gain;
+    private final int[] queue;
+    private final boolean[] queued;
+    private int head;
+    private int count;
+
+    /**
+     * Creates a local search on the given route with fresh neighbour lists.
+     *
+     * @param route The route to improve
+     */
+    public TSPLocalSearch(TSPRoute route) {
+        this(route, new TSPKdTree(route.embedding()).neighbourLists(NEIGHBOURS));
+    }
+
+    /**
+     * Creates a local search on the given route.
+     *
+     * @param route      The route to improve
+     * @param neighbours The nearest neighbours of each city, nearest first
+     */
+    public TSPLocalSearch(TSPRoute route, int[][] neighbours) {
+        this.route = route;
+        this.neighbours = neighbours;
+        this.queue = new int[route.size()];
+        this.queued = new boolean[route.size()];
+    }
+
+    /**
+     * Queues a city to be looked at, clearing its don't-look bit.
+     *
+     * @param city The city number
+     */
+    public void push(int city) {
+        if (queued[city]) return;
+        queued[city] = true;
+        int tail = head + count++;
+        queue[tail >= queue.length ? tail - queue.length : tail] = city;
+    }
+
+    /**
+     * Queues every city in tour order.
+     */
+    public void pushAll() {
+        for (int city : route.tour) push(city);
+    }
+
+    /**
+     * Applies improving moves until every city's don't-look bit is set.
+     * The total improvement is added to gain.
+     *
+     * @return true if the route was improved
+     */
+    public boolean optimise() {
+        return optimise(null);
+    }
+
+    /**
+     * Applies improving moves until every city's don't-look bit is set,
+     * checking the token every CANCEL_CHECK_INTERVAL cities looked at.
+     * The total improvement is added to gain, and a cancelled search leaves
+     * the route improved as far as it got.
+     *
+     * @param cancellation The token to check, null to run to the end
+     * @return true if the route was improved
+     * @throws java.util.concurrent.CancellationException if the token is cancelled
+     */
+    public boolean optimise(TSPCancellationToken cancellation) {
+
+        boolean improved = false;
+        if (route.size() < 5) {
+            while (count > 0) poll();
+            return false;
+        }
+
+        for (int polled = 1; count > 0; polled++) {
+            if (cancellation != null && polled % CANCEL_CHECK_INTERVAL == 0) cancellation.throwIfCancelled();
+            improved |= improve(poll());
+        }
+        return improved;
+
+    }
+
+    /**
+     * Gets the nearest neighbours of a city, nearest first. Subclasses may
+     * override this to find them on demand instead of keeping lists for all.
+     *
+     * @param city The city number
+     * @return the neighbours
+     */
+    protected int[] neighbours(int city) {
+        return neighbours[city];
+    }
+
+    private int poll() {
+        int city = queue[head];
+        if (++head == queue.length) head = 0;
+        count--;
+        queued[city] = false;
+        return city;
+    }
+
+    /**
+     * Looks for one improving move around a city and applies it.
+     *
+     * @param a The city number
+     * @return true if a move was applied
+     */
+    public boolean improve(int a) {
+        return twoOpt(a) || orOpt(a);
+    }
+
+    private boolean twoOpt(int a) {
+
+        for (int dir = 0; dir < 2; dir++) {
+            int b = dir == 0 ? route.next(a) : route.prev(a);
+            double dab = route.distance(a, b);
+
+            for (int c : neighbours(a)) {
+                double dac = route.distance(a, c);
+                if (dac >= dab) break;
+
+                int d = dir == 0 ? route.next(c) : route.prev(c);
+                if (c == b || d == a) continue;
+
+                double delta = dac + route.distance(b, d) - dab - route.distance(c, d);
+                if (delta < -EPSILON) {
+                    if (dir == 0) route.twoOptMove(a, b, c, d);
+                    else route.twoOptMove(b, a, d, c);
+                    gain -= delta;
+                    push(a);
+                    push(b);
+                    push(c);
+                    push(d);
+                    return true;
+                }
+            }
+        }
+
+        return false;
+
+    }
+
+    private boolean orOpt(int a) {
+
+        int n = route.size();
+        int s2 = a;
+
+        for (int length = 1; length <= MAX_SEGMENT && length + 3 <= n; length++) {
+            if (length > 1) s2 = route.next(s2);
+            int p = route.prev(a), nx = route.next(s2);
+            double removeGain = route.distance(p, a) + route.distance(s2, nx) - route.distance(p, nx);
+            if (removeGain <= EPSILON) continue;
+
+            for (int end = 0; end < 2; end++) {
+                int endCity = end == 0 ? a : s2;
+                for (int c : neighbours(endCity)) {
+                    if (route.distance(endCity, c) >= removeGain) break;
+                    if (inSegment(c, a, length)) continue;
+
+                    for (int side = 0; side < 2; side++) {
+                        int u = side == 0 ? c : route.prev(c);
+                        int v = side == 0 ? route.next(c) : c;
+                        if (v == p || inSegment(u, a, length) || inSegment(v, a, length)) continue;
+
+                        double uv = route.distance(u, v);
+                        double forward = route.distance(u, a) + route.distance(s2, v) - uv;
+                        double reversed = route.distance(u, s2) + route.distance(a, v) - uv;
+                        double add = Math.min(forward, reversed);
+                        if (removeGain - add > EPSILON) {
+                            moveSegment(p, a, s2, nx, u, v, length > 1 && forward < reversed);
+                            gain += removeGain - add;
+                            push(p);
+                            push(nx);
+                            push(a);
+                            push(s2);
+                            push(u);
+                            push(v);
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+
+    }
+
+    private boolean inSegment(int city, int first, int length) {
+        int offset = route.position[city] - route.position[first];
+        if (offset < 0) offset += route.size();
+        return offset < length;
+    }
+
+    /**
+     * Moves the segment s1..s2, found between p and nx, to between u and v as a
+     * sequence of 2-opt moves. The segment ends up reversed (u, s2..s1, v)
+     * unless keepOrder is set (u, s1..s2, v).
+     */
+    private void moveSegment(int p, int s1, int s2, int nx, int u, int v, boolean keepOrder) {
+
+        exchange(p, s1, u, v);
+        if (u != nx) exchange(p, u, nx, s2);
+        if (keepOrder) exchange(u, s2, s1, v);
+
+    }
+
+    /**
+     * Replaces the tour edges (a, b) and (c, d) with (a, c) and (b, d), in
+     * whichever direction the tour currently runs.
+     */
+    protected void exchange(int a, int b, int c, int d) {
+        if (route.next(a) == b) route.twoOptMove(a, b, c, d);
+        else route.twoOptMove(b, a, d, c);
+    }
+
+}
@@ -1,7 +1,6 @@
 package controller.tsp;
 
 import controller.Logger;
-import model.Blackboard;
 import model.City;
 
 import java.util.ArrayList;
@@ -41,57 +40,66 @@ public class TSPNearestNbr extends TSPAlgorithm {
         Logger.getInstance().log("Calculating shortest path using TSP Nearest Neighbor");
 
         List<List<City>> path = new ArrayList<>();
+        List<TSPCity> tspCities = oracle.sync(cityList);
 
         if (cityList.isEmpty()) {
-            Blackboard.getInstance().path = path;
-            Logger.getInstance().log("Path updated.");
-            setChanged();
-            notifyObservers();
+            publishPath(path);
             return;
         }
 
-        int visitedCount = 0;
-        boolean[] visited = new boolean[cityList.size()];
-        int[][] distance = new int[cityList.size()][cityList.size()];
-
-        for (int i = 0; i < cityList.size(); i++) {
-            City city1 = cityList.get(i);
-            for (int j = 0; j < cityList.size(); j++) {
-                City city2 = cityList.get(j);
-                if (i != j) {
-                    distance[i][j] = (int) Math.sqrt(Math.pow(city1.bounds.x - city2.bounds.x, 2) + Math.pow(city1.bounds.y - city2.bounds.y, 2));
-                    distance[j][i] = distance[i][j];
-                }
-            }
-        }
-
         List<City> connections = new ArrayList<>();
-        connections.add(cityList.get(0));
-        visitedCount++;
-        visited[0] = true;
-        int prevCityIndex = 0;
+        nearestNeighbourTour(tspCities, cancellation).forEach(tspCity -> {
+            connections.add(tspCity.city);
+        });
+
+        path.add(connections);
+        publishPath(path);
+
+    }
+
+    /**
+     * Orders the cities by always travelling to the closest unvisited city,
+     * starting from the first one. The closest unvisited city is looked up in
+     * a k-d tree that visited cities are removed from, which takes O(n log n)
+     * time and O(n) memory overall. Ties go to the city listed first.
+     *
+     * @param tspCities The cities to visit
+     * @return The cities in visiting order
+     */
+    public static List<TSPCity> nearestNeighbourTour(List<TSPCity> tspCities) {
+        return nearestNeighbourTour(tspCities, new TSPCancellationToken());
+    }
+
+    /**
+     * Orders the cities like nearestNeighbourTour(tspCities), giving up once
+     * the token is cancelled.
+     *
+     * @param tspCities    The cities to visit
+     * @param cancellation The token to check while visiting
+     * @return The cities in visiting order
+     * @throws java.util.concurrent.CancellationException if the token is cancelled
+     */
+    public static List<TSPCity> nearestNeighbourTour(List<TSPCity> tspCities, TSPCancellationToken cancellation) {
+
+        List<TSPCity> connections = new ArrayList<>();
+        if (tspCities.isEmpty()) return connections;
+
+        TSPRoute route = new TSPRoute(tspCities);
+        TSPKdTree unvisited = new TSPKdTree(route.embedding());
 
-        while (visitedCount != cityList.size()) {
-            //find next unvisited closest nbr
-            int closestNbrIndex = -1;
-            int minDistance = Integer.MAX_VALUE;
-            for (int i = 0; i < cityList.size(); i++) {
-                if (!visited[i] && distance[prevCityIndex][i] < minDistance) {
-                    minDistance = distance[prevCityIndex][i];
-                    closestNbrIndex = i;
-                }
-            }
-
-            connections.add(cityList.get(closestNbrIndex));
-            visitedCount++;
-            visited[closestNbrIndex] = true;
+        int prevCityIndex = 0;
+        connections.add(tspCities.get(0));
+        unvisited.remove(0);
+
+        for (int visitedCount = 1; visitedCount < tspCities.size(); visitedCount++) {
+            if ((visitedCount & 1023) == 0) cancellation.throwIfCancelled();
+            int closestNbrIndex = unvisited.nearestRemaining(prevCityIndex, route);
+            connections.add(tspCities.get(closestNbrIndex));
+            unvisited.remove(closestNbrIndex);
+            prevCityIndex = closestNbrIndex;
         }
 
-        path.add(connections);
-        Blackboard.getInstance().path = path;
-        Logger.getInstance().log("Path updated.");
-        setChanged();
-        notifyObservers();
+        return connections;
 
     }
 
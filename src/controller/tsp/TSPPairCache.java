@@ -0,0 +1,145 @@
+package controller.tsp;
+
+import java.util.Arrays;
+
+/**
+ * This class is a bounded least-recently-used cache of city pair distances.
+ * It is backed by primitive arrays so that its memory use is fixed by its
+ * capacity, no matter how many cities are being solved.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+class TSPPairCache {
+
+    private static final int NONE = -1;
+
+    private final long[] keys;
+    private final long[] stamps;
+    private final float[] values;
+    private final int[] buckets;
+    private final int[] chain;
+    private final int[] older;
+    private final int[] newer;
+    private int newest = NONE;
+    private int oldest = NONE;
+    private int size;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity The maximum number of pairs kept
+     */
+    TSPPairCache(int capacity) {
+        this.keys = new long[capacity];
+        this.stamps = new long[capacity];
+        this.values = new float[capacity];
+        this.chain = new int[capacity];
+        this.older = new int[capacity];
+        this.newer = new int[capacity];
+        this.buckets = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+        Arrays.fill(this.buckets, NONE);
+    }
+
+    /**
+     * Looks up a pair distance.
+     *
+     * @param key   The pair key
+     * @param stamp The generations of both cities, a mismatch means the entry is stale
+     * @return the cached distance, or NaN if there is no up-to-date entry
+     */
+    float get(long key, long stamp) {
+
+        int entry = find(key);
+        if (entry == NONE || stamps[entry] != stamp) return Float.NaN;
+
+        touch(entry);
+        return values[entry];
+
+    }
+
+    /**
+     * Stores a pair distance, evicting the least recently used pair when full.
+     *
+     * @param key   The pair key
+     * @param stamp The generations of both cities
+     * @param value The distance
+     */
+    void put(long key, long stamp, float value) {
+
+        int entry = find(key);
+
+        if (entry == NONE) {
+            if (size < keys.length) {
+                entry = size++;
+            } else {
+                entry = oldest;
+                unlinkFromBucket(entry);
+                unlinkFromAge(entry);
+            }
+            keys[entry] = key;
+            int bucket = bucketOf(key);
+            chain[entry] = buckets[bucket];
+            buckets[bucket] = entry;
+            linkNewest(entry);
+        } else {
+            touch(entry);
+        }
+
+        stamps[entry] = stamp;
+        values[entry] = value;
+
+    }
+
+    private int bucketOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (buckets.length - 1);
+    }
+
+    private int find(long key) {
+        for (int entry = buckets[bucketOf(key)]; entry != NONE; entry = chain[entry]) {
+            if (keys[entry] == key) return entry;
+        }
+        return NONE;
+    }
+
+    private void unlinkFromBucket(int entry) {
+
+        int bucket = bucketOf(keys[entry]);
+        if (buckets[bucket] == entry) {
+            buckets[bucket] = chain[entry];
+            return;
+        }
+
+        for (int prev = buckets[bucket]; prev != NONE; prev = chain[prev]) {
+            if (chain[prev] == entry) {
+                chain[prev] = chain[entry];
+                return;
+            }
+        }
+
+    }
+
+    private void touch(int entry) {
+        if (entry == newest) return;
+        unlinkFromAge(entry);
+        linkNewest(entry);
+    }
+
+    private void unlinkFromAge(int entry) {
+        if (older[entry] != NONE) newer[older[entry]] = newer[entry];
+        else oldest = newer[entry];
+        if (newer[entry] != NONE) older[newer[entry]] = older[entry];
+        else newest = older[entry];
+    }
+
+    private void linkNewest(int entry) {
+        older[entry] = newest;
+        newer[entry] = NONE;
+        if (newest != NONE) newer[newest] = entry;
+        newest = entry;
+        if (oldest == NONE) oldest = entry;
+    }
+
+}
@@ -0,0 +1,143 @@
+package controller.tsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class runs simulated annealing as parallel tempering (replica exchange).
+ * Each replica anneals its own copy of the route at a fixed temperature, the
+ * temperatures forming a geometric ladder from the end up to the start
+ * temperature of the annealing schedule, both scaled to the initial tour.
+ * The replicas run side by side on a ForkJoinPool, and after every round
+ * neighbouring temperatures may trade replicas, so good tours found while hot
+ * get to cool down and stuck cold tours get heated up.
+ * Every replica draws its moves from its own stream, split off the given one.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class TSPParallelTempering {
+
+    public static final int MIN_ROUND_STEPS = 1000;
+
+    private final TSPAnnealer[] replicas;
+    private final double[] temperatures;
+    private final int[] replicaAt;
+    private final ForkJoinPool pool;
+    private final SplittableRandom random;
+    private final Runnable[] sweeps;
+    private final List<Callable<Void>> rounds;
+    private final int size;
+    private final TSPCancellationToken cancellation;
+
+    /**
+     * Creates the replicas, each starting from the given tour, drawing the
+     * exchanges and the replicas' moves from the given random number stream.
+     *
+     * @param tour         The initial tour
+     * @param replicaCount The number of replicas, at least one
+     * @param pool         The pool the replicas run on, null to run a single replica
+     *                     on the calling thread
+     * @param random       The random number stream, not shared with other threads
+     * @param cancellation The token checked after each round
+     */
+    public TSPParallelTempering(List<TSPCity> tour, int replicaCount, ForkJoinPool pool, SplittableRandom random,
+                                TSPCancellationToken cancellation) {
+
+        this.replicas = new TSPAnnealer[replicaCount];
+        this.temperatures = new double[replicaCount];
+        this.replicaAt = new int[replicaCount];
+        this.pool = pool;
+        this.random = random;
+        this.sweeps = new Runnable[replicaCount];
+        this.rounds = new ArrayList<>();
+        this.size = tour.size();
+        this.cancellation = cancellation;
+
+        int steps = Math.max(MIN_ROUND_STEPS, size);
+        for (int i = 0; i < replicaCount; i++) {
+            replicas[i] = new TSPAnnealer(new TSPRoute(tour), random.split(), cancellation);
+        }
+
+        double coldest = replicas[0].getEndTemperature();
+        double ratio = replicaCount > 1
+                ? Math.pow(replicas[0].getStartTemperature() / coldest, 1.0 / (replicaCount - 1))
+                : 1;
+
+        for (int i = 0; i < replicaCount; i++) {
+            temperatures[i] = coldest * Math.pow(ratio, i);
+            replicaAt[i] = i;
+
+            final int level = i;
+            sweeps[i] = () -> {
+                TSPAnnealer replica = replicas[replicaAt[level]];
+                double temperature = temperatures[level];
+                for (int k = 0; k < steps; k++) {
+                    replica.step(temperature);
+                }
+            };
+            rounds.add(Executors.callable(sweeps[i], null));
+        }
+
+    }
+
+    /**
+     * Runs rounds of annealing and replica exchange until the deadline passes.
+     *
+     * @param deadlineNanos The System.nanoTime() value to stop at
+     * @param progress      Called after each round
+     * @throws java.util.concurrent.CancellationException if the token is cancelled
+     */
+    public void run(long deadlineNanos, Runnable progress) {
+
+        if (size < 4) return;
+
+        while (System.nanoTime() - deadlineNanos < 0) {
+            cancellation.throwIfCancelled();
+            if (pool != null) pool.invokeAll(rounds);
+            else sweeps[0].run();
+            exchange();
+            progress.run();
+        }
+
+    }
+
+    /**
+     * Gets the replica that has found the shortest tour so far.
+     *
+     * @return the best replica
+     */
+    public TSPAnnealer getBestReplica() {
+        TSPAnnealer best = replicas[0];
+        for (TSPAnnealer replica : replicas) {
+            if (replica.getBestDistance() < best.getBestDistance()) best = replica;
+        }
+        return best;
+    }
+
+    /**
+     * Offers each pair of neighbouring temperatures the chance to trade replicas,
+     * accepted with the Metropolis probability of the exchange.
+     */
+    private void exchange() {
+
+        for (int level = random.nextInt(2); level + 1 < replicas.length; level += 2) {
+            TSPAnnealer cold = replicas[replicaAt[level]];
+            TSPAnnealer hot = replicas[replicaAt[level + 1]];
+            double exponent = (1 / temperatures[level] - 1 / temperatures[level + 1])
+                    * (cold.getCurrentDistance() - hot.getCurrentDistance());
+            if (exponent >= 0 || Math.exp(exponent) >= random.nextDouble()) {
+                int temp = replicaAt[level];
+                replicaAt[level] = replicaAt[level + 1];
+                replicaAt[level + 1] = temp;
+            }
+        }
+
+    }
+
+}
@@ -1,14 +1,20 @@
 package controller.tsp;
 
 import controller.Logger;
-import model.Blackboard;
 import model.City;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
  * This class runs the travelling sales person algorithm to find the optimal route between the points.
- * It uses the Simulated Annealing Algorithm.
+ * It uses the Simulated Annealing Algorithm, either as a single annealing chain
+ * or, in the parallel mode, as parallel tempering with one replica per core
+ * and at least two. Either way it runs for at most its time budget.
+ * It runs in anytime mode: the nearest neighbour tour is published right away,
+ * better tours while annealing, and the best tour keeps being annealed at low
+ * temperature until the city data changes or it stops getting shorter.
  *
  * @author : Pritam De (ID: 1219491988, pritamde@asu.edu)
  * @version 1.0
@@ -17,12 +23,54 @@ import java.util.*;
 public class TSPPro extends TSPAlgorithm {
 
     public static final String name = "TSP - Pro";
+    public static final String parallelName = "TSP - Pro (Parallel)";
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 10000;
     public TSPRoute tspRoute;
     public TSPRoute shortestRoute;
+    public final int replicas;
+    public long timeBudgetMillis;
+    private final ForkJoinPool pool;
+    private SplittableRandom random;
+    private TSPParallelTempering refinement;
 
+    /**
+     * Creates an instance of TSPPro class running a single annealing chain.
+     */
     public TSPPro() {
-        super(TSPTypes.TSP_PRO);
+        this(1);
+    }
+
+    /**
+     * Creates an instance of TSPPro class. With more than one replica it runs
+     * parallel tempering for the time budget. A single chain runs its annealing
+     * schedule, stopping early if the time budget runs out.
+     *
+     * @param replicas The number of replicas, 1 for a single annealing chain
+     */
+    public TSPPro(int replicas) {
+        super(replicas > 1 ? TSPTypes.TSP_PRO_PARALLEL : TSPTypes.TSP_PRO);
         this.keepRunning = true;
+        this.anytime = true;
+        this.incrementalRepair = true;
+        this.replicas = replicas;
+        this.timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS;
+        this.pool = replicas > 1 ? new ForkJoinPool(replicas, TSPPro::newLowPriorityThread, null, false) : null;
+    }
+
+    /**
+     * Gets the number of replicas of the parallel mode: one per core, and at
+     * least two, so that it runs parallel tempering even on a single core.
+     *
+     * @return the number of replicas
+     */
+    public static int parallelReplicas() {
+        return Math.max(2, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static ForkJoinWorkerThread newLowPriorityThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
     }
 
     /**
@@ -35,34 +83,21 @@ public class TSPPro extends TSPAlgorithm {
 
         Logger.getInstance().log("Calculating shortest path using TSP Pro");
 
+        random = new SplittableRandom(seed);
         List<List<City>> path = new ArrayList<>();
+        List<TSPCity> tspCities = oracle.sync(cityList);
 
         if (cityList.isEmpty()) {
-            Blackboard.getInstance().path = path;
-            Logger.getInstance().log("Path updated.");
-            setChanged();
-            notifyObservers();
+            publishPath(path);
             return;
         }
 
-        List<TSPCity> tspCities = new ArrayList<>();
-        cityList.forEach(city -> {
-            tspCities.add(new TSPCity(city, city.bounds.x, city.bounds.y));
-        });
-
-        tspRoute = new TSPRoute(tspCities);
+        refinement = null;
+        tspRoute = new TSPRoute(TSPNearestNbr.nearestNeighbourTour(tspCities, cancellation));
+        if (anytime) publish(tspRoute.getTotalDistance(), tspRoute.toCityList());
         findRoute();
 
-        List<City> connections = new ArrayList<>();
-        shortestRoute.cities.forEach(tspCity -> {
-            connections.add(tspCity.city);
-        });
-
-        path.add(connections);
-        Blackboard.getInstance().path = path;
-        Logger.getInstance().log("Path updated.");
-        setChanged();
-        notifyObservers();
+        publish(shortestRoute.getTotalDistance(), shortestRoute.toCityList());
 
     }
 
@@ -72,56 +107,66 @@ public class TSPPro extends TSPAlgorithm {
      */
     public void findRoute() {
 
-        System.out.println("Find route called");
-        shortestRoute = createTspRoute(tspRoute);
-        TSPRoute adjacentRoute;
-        int initialTemperature = 999;
-        while (initialTemperature > TSPAlgorithm.TEMP_MIN) {
-            TSPRoute route = createTspRoute(tspRoute);
-            adjacentRoute = obtainAdjacentRoute(route);
-            if (tspRoute.getTotalDistance() < shortestRoute.getTotalDistance()) {
-                shortestRoute = createTspRoute(tspRoute);
-            }
-            if (acceptRoute(tspRoute.getTotalDistance(), adjacentRoute.getTotalDistance(), initialTemperature)) {
-                tspRoute = createTspRoute(adjacentRoute);
-            }
-            initialTemperature *= 1 - TSPAlgorithm.COOLING_RATE;
+        if (replicas > 1) {
+            long deadline = System.nanoTime() + timeBudgetMillis * 1000000L;
+            refinement = new TSPParallelTempering(Arrays.asList(tspRoute.cities), replicas, pool, random.split(),
+                    cancellation);
+            refinement.run(deadline, this::publishBest);
+            shortestRoute = refinement.getBestReplica().restoreBest();
+        } else {
+            TSPAnnealer annealer = new TSPAnnealer(tspRoute, random.split(), cancellation);
+            shortestRoute = annealer.anneal(timeBudgetMillis * 1000000L,
+                    () -> publishIfDue(annealer.getBestDistance(), annealer::bestCityList));
+            refinement = new TSPParallelTempering(shortestRoute.toTSPCityList(), 1, null, random.split(),
+                    cancellation);
         }
 
-        System.out.println("Printing the route");
-        shortestRoute.cities.forEach(tspCity -> {
-            System.out.print(tspCity.city.label + " ");
-        });
-
     }
 
+    /**
+     * Keeps annealing the best tour for a while, publishing it if it got shorter.
+     *
+     * @return false if the route is too small to refine
+     */
+    @Override
+    protected boolean refine() {
 
-    private TSPRoute createTspRoute(TSPRoute tspRoute) {
-        TSPRoute route = new TSPRoute(new ArrayList<>());
-        route.cities.addAll(tspRoute.cities);
-        return route;
-    }
+        if (refinement == null || shortestRoute.size() < 4) return false;
 
-    private boolean acceptRoute(double currentDistance, double adjacentDistance, double temperature) {
-        double acceptanceProb = 1.0;
-        if (adjacentDistance >= currentDistance) {
-            acceptanceProb = Math.exp(-(adjacentDistance - currentDistance) / temperature);
+        refinement.run(System.nanoTime() + REFINE_SLICE_NANOS, this::publishBest);
+        TSPAnnealer best = refinement.getBestReplica();
+        if (best.getBestDistance() < getPublishedDistance()) {
+            publish(best.getBestDistance(), best.bestCityList());
         }
-        double random = Math.random();
-        return acceptanceProb >= random;
+        return true;
+
     }
 
-    private TSPRoute obtainAdjacentRoute(TSPRoute route) {
-        int x1 = 0, x2 = 0;
-        while (x1 == x2) {
-            x1 = (int) (route.cities.size() * Math.random());
-            x2 = (int) (route.cities.size() * Math.random());
-        }
-        TSPCity city1 = route.cities.get(x1);
-        TSPCity city2 = route.cities.get(x2);
-        route.cities.set(x2, city1);
-        route.cities.set(x1, city2);
-        return route;
+    /**
+     * Carries on annealing from a repaired tour, with a stream split off the
+     * one of the last calculation, so a seeded run repeats its repairs too.
+     *
+     * @param route The repaired route
+     */
+    @Override
+    protected void resume(TSPRoute route) {
+        if (random == null) random = new SplittableRandom(seed);
+        shortestRoute = route;
+        refinement = new TSPParallelTempering(route.toTSPCityList(), replicas, pool, random.split(), cancellation);
+    }
+
+    /**
+     * Stops the solver and the pool its replicas run on.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        if (pool != null) pool.shutdownNow();
+    }
+
+    private void publishBest() {
+        TSPAnnealer best = refinement.getBestReplica();
+        publishIfDue(best.getBestDistance(), best::bestCityList);
     }
 
-}
\ No newline at end of file
+}
@@ -1,10 +1,17 @@
 package controller.tsp;
 
+import model.City;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * This class holds the routing information between cities.
+ * This class holds the routing information between cities. Each city of the
+ * route is numbered once; the tour is a permutation of these numbers, with a
+ * position index kept in step so solvers can mutate it in place. When the
+ * metric is Euclidean, the coordinates are copied into flat arrays and
+ * distances are worked out from them, without going through the oracle.
  *
  * @author : Pritam De (ID: 1219491988, pritamde@asu.edu)
  * @version 1.0
@@ -13,16 +20,129 @@ import java.util.List;
 
 public class TSPRoute {
 
-    public List<TSPCity> cities;
+    public final TSPCity[] cities;
+    public final double[] xs;
+    public final double[] ys;
+    public final int[] tour;
+    public final int[] position;
+    public final TSPDistanceOracle oracle;
+    public final DistanceMetric metric;
+    private final boolean squared;
+    private int[] journal;
+    private int journalSize = -1;
 
     /**
-     * Creates an instance of TSPRoute used by TSPAlgorithms
+     * Creates an instance of TSPRoute used by TSPAlgorithms,
+     * visiting the cities in the given order. Distances come from the oracle
+     * the cities were synced with.
      *
      * @param cities The list of TSP cities
      */
     public TSPRoute(List<TSPCity> cities) {
-        this.cities = new ArrayList<>();
-        this.cities.addAll(cities);
+
+        int n = cities.size();
+        this.cities = cities.toArray(new TSPCity[0]);
+        this.tour = new int[n];
+        this.position = new int[n];
+        this.oracle = n > 0 && this.cities[0].oracle != null ? this.cities[0].oracle
+                : TSPDistanceOracle.getInstance();
+        this.metric = n > 0 ? this.cities[0].metric : this.oracle.getMetric();
+
+        boolean planar = this.metric instanceof EuclideanMetric;
+        this.squared = this.metric instanceof SquaredEuclideanMetric;
+        this.xs = planar ? new double[n] : null;
+        this.ys = planar ? new double[n] : null;
+
+        for (int i = 0; i < n; i++) {
+            if (planar) {
+                this.xs[i] = this.cities[i].x;
+                this.ys[i] = this.cities[i].y;
+            }
+            this.tour[i] = i;
+            this.position[i] = i;
+        }
+
+    }
+
+    /**
+     * gets the number of cities in the route
+     *
+     * @return the number of cities
+     */
+    public int size() {
+        return tour.length;
+    }
+
+    /**
+     * gets the city number at a position of the tour, wrapping around at both ends
+     *
+     * @param position the position, between -size and 2 * size - 1
+     * @return the city number
+     */
+    public int at(int position) {
+        int n = tour.length;
+        if (position < 0) position += n;
+        else if (position >= n) position -= n;
+        return tour[position];
+    }
+
+    /**
+     * gets the city that follows a city in the tour
+     *
+     * @param city the city number
+     * @return the next city number
+     */
+    public int next(int city) {
+        int p = position[city] + 1;
+        return tour[p == tour.length ? 0 : p];
+    }
+
+    /**
+     * gets the city that precedes a city in the tour
+     *
+     * @param city the city number
+     * @return the previous city number
+     */
+    public int prev(int city) {
+        int p = position[city] - 1;
+        return tour[p < 0 ? tour.length - 1 : p];
+    }
+
+    /**
+     * gets the cities as points in space, in which the straight-line distance
+     * orders cities the same way as the distance between them does
+     *
+     * @return the coordinates, one array per dimension
+     */
+    public double[][] embedding() {
+        return metric.embedding(cities);
+    }
+
+    /**
+     * gets the distance between two cities of this route
+     *
+     * @param a the first city number
+     * @param b the second city number
+     * @return the distance
+     */
+    public double distance(int a, int b) {
+        if (xs == null) return oracle.distance(cities[a], cities[b]);
+        double dx = xs[a] - xs[b], dy = ys[a] - ys[b];
+        return squared ? dx * dx + dy * dy : Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * gets a value that orders pairs of cities of this route like their distance,
+     * for comparing distances without looking them up
+     *
+     * @param a the first city number
+     * @param b the second city number
+     * @return the value for the pair
+     */
+    public double comparableDistance(int a, int b) {
+        if (xs == null) return metric.comparableDistance(cities[a], cities[b]);
+        double dx = xs[a] - xs[b], dy = ys[a] - ys[b];
+        return dx * dx + dy * dy;
     }
 
     /**
@@ -32,15 +152,197 @@ public class TSPRoute {
      */
     public double getTotalDistance() {
 
-        int citiesSize = this.cities.size();
+        int n = tour.length;
+        double distance = 0;
+        for (int i = 1; i < n; i++) {
+            distance += distance(tour[i - 1], tour[i]);
+        }
+        if (n > 1) distance += distance(tour[n - 1], tour[0]);
+        return distance;
+
+    }
+
+    /**
+     * swaps the cities at two positions
+     *
+     * @param i the first position
+     * @param j the second position
+     */
+    public void swap(int i, int j) {
+        int a = tour[i];
+        int b = tour[j];
+        tour[i] = b;
+        position[b] = i;
+        tour[j] = a;
+        position[a] = j;
+    }
+
+    /**
+     * reverses the segment between two positions, both included
+     *
+     * @param i the first position of the segment
+     * @param j the last position of the segment, not before i
+     */
+    public void reverse(int i, int j) {
+        if (i < j) log(i, j);
+        while (i < j) {
+            swap(i++, j--);
+        }
+    }
+
+    /**
+     * replaces the edges (a, b) and (c, d), where b follows a and d follows c,
+     * with (a, c) and (b, d) by reversing the shorter of the paths b..c and d..a
+     *
+     * @param a a city
+     * @param b the city following a
+     * @param c another city
+     * @param d the city following c
+     */
+    public void twoOptMove(int a, int b, int c, int d) {
+
+        int n = tour.length;
+        int inner = position[c] - position[b];
+        if (inner < 0) inner += n;
+        if (2 * (inner + 1) <= n) reversePath(position[b], position[c]);
+        else reversePath(position[d], position[a]);
+
+    }
+
+    private void reversePath(int i, int j) {
+
+        log(i, j);
+        int n = tour.length;
+        int length = j - i;
+        if (length < 0) length += n;
+        for (int k = (length + 1) / 2; k > 0; k--) {
+            swap(i, j);
+            if (++i == n) i = 0;
+            if (--j < 0) j = n - 1;
+        }
+
+    }
+
+    /**
+     * swaps two consecutive segments of the tour, the first starting at position i
+     *
+     * @param i            the first position of the first segment
+     * @param firstLength  the length of the first segment
+     * @param secondLength the length of the second segment, which must end before the end of the tour
+     */
+    public void swapSegments(int i, int firstLength, int secondLength) {
+        reverse(i, i + firstLength - 1);
+        reverse(i + firstLength, i + firstLength + secondLength - 1);
+        reverse(i, i + firstLength + secondLength - 1);
+    }
+
+    /**
+     * moves the city at position i to sit right after the city at position j
+     *
+     * @param i the position of the city to move
+     * @param j the position of the city it should follow
+     */
+    public void move(int i, int j) {
+
+        int city = tour[i];
+        if (i < j) {
+            System.arraycopy(tour, i + 1, tour, i, j - i);
+            tour[j] = city;
+            for (int k = i; k <= j; k++) position[tour[k]] = k;
+        } else {
+            System.arraycopy(tour, j + 1, tour, j + 2, i - j - 1);
+            tour[j + 1] = city;
+            for (int k = j + 1; k <= i; k++) position[tour[k]] = k;
+        }
+
+    }
+
+    /**
+     * starts recording the reversals applied to the tour, so that they can be
+     * undone with rollback in time proportional to the cities they moved.
+     * Only reverse, twoOptMove and swapSegments are recorded, so swap and move
+     * must not be used while recording.
+     */
+    public void record() {
+        if (journal == null) journal = new int[64];
+        journalSize = 0;
+    }
 
-        return (int) (this.cities.stream().mapToDouble(x->{
-            int cityIndex = this.cities.indexOf(x);
-            double returnValue = 0;
-            if (cityIndex<citiesSize-1) returnValue = x.measureDistance(this.cities.get(cityIndex+1));
-            return returnValue;
-        }).sum() + this.cities.get(citiesSize-1).measureDistance(this.cities.get(0)));
+    /**
+     * stops recording and keeps the reversals applied since record
+     */
+    public void commit() {
+        journalSize = -1;
+    }
 
+    /**
+     * stops recording and undoes the reversals applied since record, last first
+     */
+    public void rollback() {
+
+        int size = journalSize;
+        journalSize = -1;
+        while (size > 0) {
+            int j = journal[--size];
+            int i = journal[--size];
+            reversePath(i, j);
+        }
+
+    }
+
+    private void log(int i, int j) {
+
+        if (journalSize < 0) return;
+        if (journalSize >= 2 && journal[journalSize - 2] == i && journal[journalSize - 1] == j) {
+            //a reversal undone right away, as a search step rolled back, is dropped
+            journalSize -= 2;
+            return;
+        }
+        if (journalSize + 2 > journal.length) journal = Arrays.copyOf(journal, journal.length * 2);
+        journal[journalSize++] = i;
+        journal[journalSize++] = j;
+
+    }
+
+    /**
+     * copies the tour, to be restored later
+     *
+     * @param snapshot the array to copy into, of the route's size
+     */
+    public void snapshot(int[] snapshot) {
+        System.arraycopy(tour, 0, snapshot, 0, tour.length);
+    }
+
+    /**
+     * restores a tour copied with snapshot
+     *
+     * @param snapshot the copied tour
+     */
+    public void restore(int[] snapshot) {
+        System.arraycopy(snapshot, 0, tour, 0, tour.length);
+        for (int i = 0; i < tour.length; i++) position[tour[i]] = i;
+    }
+
+    /**
+     * lists the cities in tour order
+     *
+     * @return the cities of the route
+     */
+    public List<City> toCityList() {
+        List<City> connections = new ArrayList<>(tour.length);
+        for (int city : tour) connections.add(cities[city].city);
+        return connections;
+    }
+
+    /**
+     * lists the TSP cities in tour order
+     *
+     * @return the TSP cities of the route
+     */
+    public List<TSPCity> toTSPCityList() {
+        List<TSPCity> tspCities = new ArrayList<>(tour.length);
+        for (int city : tour) tspCities.add(cities[city]);
+        return tspCities;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,176 @@
+package controller.tsp;
+
+import model.Blackboard;
+import model.City;
+import model.CityGrid;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class repairs a tour after a few cities were added or moved, instead of
+ * solving again from scratch. Each added city is inserted between the two
+ * neighbouring cities where it adds the least length (cheapest insertion), each
+ * moved city is taken out and put back the same way, then a 2-opt and Or-opt
+ * pass runs around the changed edges. Nearby cities are found
+ * with the spatial index on the blackboard, so the repair only looks at the
+ * neighbourhood of the moved cities.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class TSPTourRepair {
+
+    public static final int CANDIDATES = 8;
+    private static final int MAX_SEARCH_RADIUS = 1 << 20;
+    private static final double EPSILON = 1e-7;
+
+    private final TSPRoute route;
+    private final int[] routeIndex;
+    private final Map<Integer, int[]> neighbourCache;
+    private final boolean[] pending;
+
+    /**
+     * Creates a repair for the given tour.
+     *
+     * @param tour The tour to repair followed by the cities to add, synced with the distance oracle
+     */
+    public TSPTourRepair(List<TSPCity> tour) {
+
+        this.route = new TSPRoute(tour);
+        this.neighbourCache = new HashMap<>();
+        this.pending = new boolean[tour.size()];
+
+        int slots = 0;
+        for (TSPCity tspCity : route.cities) slots = Math.max(slots, tspCity.index + 1);
+        this.routeIndex = new int[slots];
+        Arrays.fill(routeIndex, -1);
+        for (int i = 0; i < route.cities.length; i++) routeIndex[route.cities[i].index] = i;
+
+    }
+
+    /**
+     * Inserts the added cities and reinserts the moved cities at their cheapest
+     * positions, then improves the tour around them.
+     *
+     * @param addedCities  The cities added, found at the end of the tour
+     * @param movedCities  The cities that moved
+     * @param cancellation The token checked between cities
+     * @return The repaired route
+     * @throws java.util.concurrent.CancellationException if the token is cancelled
+     */
+    public TSPRoute repair(Collection<City> addedCities, Collection<City> movedCities,
+                           TSPCancellationToken cancellation) {
+
+        if (route.size() < 5) return route;
+
+        TSPLocalSearch localSearch = new TSPLocalSearch(route, null) {
+            @Override
+            protected int[] neighbours(int city) {
+                return nearest(city);
+            }
+        };
+
+        for (City city : addedCities) {
+            int added = indexOf(city);
+            if (added >= 0) pending[added] = true;
+        }
+
+        for (City city : addedCities) {
+            cancellation.throwIfCancelled();
+            int added = indexOf(city);
+            if (added >= 0) reinsert(added, true, localSearch);
+        }
+
+        for (City city : movedCities) {
+            cancellation.throwIfCancelled();
+            int moved = indexOf(city);
+            if (moved >= 0) reinsert(moved, false, localSearch);
+        }
+
+        localSearch.optimise(cancellation);
+        return route;
+
+    }
+
+    /**
+     * Moves a city between the pair of neighbouring cities that adds the least
+     * length, if that beats where it is now or the city is being added, and
+     * queues the cities around it. Added cities not placed yet are skipped.
+     */
+    private void reinsert(int moved, boolean adding, TSPLocalSearch localSearch) {
+
+        pending[moved] = false;
+        int p = route.prev(moved), q = route.next(moved);
+        double removeGain = route.distance(p, moved) + route.distance(moved, q) - route.distance(p, q);
+        double bestCost = adding ? Double.MAX_VALUE : removeGain - EPSILON;
+        int bestU = -1, bestV = -1;
+
+        for (int c : nearest(moved)) {
+            for (int side = 0; side < 2; side++) {
+                int u = side == 0 ? route.prev(c) : c;
+                int v = side == 0 ? c : route.next(c);
+                if (u == moved || v == moved || pending[u] || pending[v]) continue;
+
+                double cost = route.distance(u, moved) + route.distance(moved, v) - route.distance(u, v);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestU = u;
+                    bestV = v;
+                }
+            }
+        }
+
+        localSearch.push(moved);
+        localSearch.push(p);
+        localSearch.push(q);
+        if (bestU < 0) return;
+
+        route.move(route.position[moved], route.position[bestU]);
+        localSearch.push(bestU);
+        localSearch.push(bestV);
+
+    }
+
+    /**
+     * Finds the cities of the route nearest to a city, looking in ever larger
+     * squares around it on the blackboard's spatial index.
+     */
+    private int[] nearest(int city) {
+
+        int[] cached = neighbourCache.get(city);
+        if (cached != null) return cached;
+
+        Rectangle bounds = route.cities[city].city.bounds;
+        int wanted = Math.min(CANDIDATES, route.size() - 1);
+        List<Integer> found = new ArrayList<>();
+        for (int radius = CityGrid.CELL_SIZE; found.size() < wanted && radius <= MAX_SEARCH_RADIUS; radius *= 2) {
+            found.clear();
+            Rectangle area = new Rectangle(bounds.x - radius, bounds.y - radius, 2 * radius, 2 * radius);
+            for (City nearby : Blackboard.getInstance().findCitiesIn(area)) {
+                int other = indexOf(nearby);
+                if (other >= 0 && other != city) found.add(other);
+            }
+        }
+
+        found.sort((a, b) -> Double.compare(route.comparableDistance(city, a), route.comparableDistance(city, b)));
+        int[] neighbours = new int[Math.min(wanted, found.size())];
+        for (int i = 0; i < neighbours.length; i++) neighbours[i] = found.get(i);
+        neighbourCache.put(city, neighbours);
+        return neighbours;
+
+    }
+
+    private int indexOf(City city) {
+        TSPCity tspCity = route.oracle.lookup(city);
+        if (tspCity == null || tspCity.index < 0 || tspCity.index >= routeIndex.length) return -1;
+        return routeIndex[tspCity.index];
+    }
+
+}
@@ -0,0 +1,61 @@
+package controller.tsp;
+
+import controller.Logger;
+import model.City;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class runs the travelling sales person algorithm using 2-opt local search.
+ * It starts from the nearest neighbour tour and removes crossing edges with 2-opt
+ * and Or-opt moves, using don't-look bits to only revisit recently changed cities.
+ * When cities are only added or dragged around, the last tour is repaired instead,
+ * inserting the added cities and reinserting the dragged ones where they cost least.
+ *
+ * @author Pritam De (ID: 1219491988, pritamde@asu.edu)
+ * @version 1.0
+ * @since 2021-11-16
+ */
+public class TSPTwoOpt extends TSPAlgorithm {
+
+    public static final String name = "TSP - 2-Opt";
+
+    /**
+     * Creates an instance of TSPTwoOpt class initialized
+     * to keep running until requested to stop.
+     */
+    public TSPTwoOpt() {
+        super(TSPTypes.TSP_TWO_OPT);
+        this.keepRunning = true;
+        this.incrementalRepair = true;
+    }
+
+    /**
+     * Implementation of the 'calculate' method inherited.
+     *
+     * @param cityList The list of cities to calculate the path for
+     */
+    @Override
+    public void calculate(List<City> cityList) {
+
+        Logger.getInstance().log("Calculating shortest path using TSP 2-Opt");
+
+        List<List<City>> path = new ArrayList<>();
+        List<TSPCity> tspCities = oracle.sync(cityList);
+
+        if (cityList.isEmpty()) {
+            publishPath(path);
+            return;
+        }
+
+        TSPRoute route = new TSPRoute(TSPNearestNbr.nearestNeighbourTour(tspCities, cancellation));
+        TSPLocalSearch localSearch = new TSPLocalSearch(route);
+        localSearch.pushAll();
+        localSearch.optimise(cancellation);
+
+        publish(route.getTotalDistance(), route.toCityList());
+
+    }
+
+}
@@ -10,6 +10,10 @@ package controller.tsp;
 public enum TSPTypes {
     TSP_NEAREST_NBR,
     TSP_PRO,
+    TSP_PRO_PARALLEL,
     TSP_CLUSTER,
+    TSP_CLUSTER_STITCHED,
+    TSP_TWO_OPT,
+    TSP_LIN_KERNIGHAN,
     USER_CONNECT
 }
@@ -37,21 +37,26 @@ public class TSPUserConnect extends TSPAlgorithm {
 
         Logger.getInstance().log("Calculating shortest path using TSP User Connect.");
 
-        City newCity = null;
+        List<List<City>> currentPath = Blackboard.getInstance().getPath();
+        List<List<City>> path = new ArrayList<>(currentPath);
         for (City city : cityList) {
             City cityFound = Blackboard.getInstance().findCityInPath(city);
-            if (cityFound == null) newCity = city;
+            if (cityFound == null) {
+                List<City> newCluster = new ArrayList<>();
+                newCluster.add(city);
+                path.add(newCluster);
+            }
         }
 
-        if (newCity != null) {
-            List<City> newCluster = new ArrayList<>();
-            newCluster.add(newCity);
-            Blackboard.getInstance().path.add(newCluster);
+        if (path.size() == currentPath.size()) {
+            //no new cities, keep the path connected by hand and its index
+            Logger.getInstance().log("Path updated.");
+            setChanged();
+            notifyObservers();
+            return;
         }
 
-        Logger.getInstance().log("Path updated.");
-        setChanged();
-        notifyObservers();
+        publishPath(path);
 
     }
 
@@ -1,12 +1,29 @@
 package model;
 
+import controller.Logger;
+
+import java.awt.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This singleton class stores the list of cities and another one with these
- * cities in the order of shortest traversal. It also maintains a flag
- * to mark change in city data.
+ * cities in the order of shortest traversal, as an immutable versioned snapshot.
+ * Edits replace the snapshot under a lock, while readers such as painting only
+ * read the current one and never block. Solvers publish paths tagged with the
+ * snapshot they were calculated from, and paths for a different set of cities,
+ * or older than the one shown, are dropped. It also maintains a flag
+ * to mark change in city data, which solver threads can block on.
+ * Cities are also indexed by position for hit-testing, so they should be
+ * added, removed and moved through this class. The cities added and moved
+ * since the solver last asked are tracked, so the solver can update its tour
+ * locally. The clusters of the path are indexed by city for connecting
+ * cities by hand.
  *
  * @author amaryadav, greeshma
  * @version 1.0
@@ -14,17 +31,34 @@ import java.util.List;
  */
 public class Blackboard {
 
+    public static final long QUIET_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+    public static final long MAX_COALESCE_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+
     private static Blackboard _instance;
 
-    public List<City> cityList;
-    public List<List<City>> path;
-    public boolean dataChanged;
+    private volatile Snapshot snapshot;
+    private final Object editLock;
+    private final CityGrid cityGrid;
+    private PathIndex pathIndex;
+    private final List<City> addedCities;
+    private final Set<City> movedCities;
+    private boolean citiesRestructured;
+    private final Object changeLock;
+    private volatile boolean dataChanged;
+    private long firstChangeNanos;
+    private long lastChangeNanos;
+    private volatile long lastChangeLatencyNanos;
 
     private Blackboard() {
 
-        this.cityList = new ArrayList<>();
-        this.path = new ArrayList<>();
-        dataChanged = true;
+        this.snapshot = new Snapshot(0, 0, Collections.emptyList(), Collections.emptyList(), 0);
+        this.editLock = new Object();
+        this.cityGrid = new CityGrid();
+        this.addedCities = new ArrayList<>();
+        this.movedCities = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.citiesRestructured = true;
+        this.changeLock = new Object();
+        markDataChanged();
 
     }
 
@@ -36,98 +70,321 @@ public class Blackboard {
         return _instance;
     }
 
+    /**
+     * Marks the city data as changed and wakes up the solver waiting for it.
+     */
+    public void markDataChanged() {
+        synchronized (changeLock) {
+            lastChangeNanos = System.nanoTime();
+            if (!dataChanged) firstChangeNanos = lastChangeNanos;
+            dataChanged = true;
+            changeLock.notifyAll();
+        }
+    }
+
+    /**
+     * Checks if the city data changed since a solver last picked it up.
+     *
+     * @return true if there is a change waiting to be solved
+     */
+    public boolean isDataChanged() {
+        return dataChanged;
+    }
+
+    /**
+     * Blocks until the city data changes, then clears the flag. A burst of changes
+     * is coalesced: once woken up, this waits for the edits to go quiet for
+     * QUIET_NANOS, but never longer than MAX_COALESCE_NANOS after the first one.
+     *
+     * @return the time in nanoseconds from the first pending change until now
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public long awaitDataChanged() throws InterruptedException {
+        synchronized (changeLock) {
+            while (!dataChanged) changeLock.wait();
+
+            long deadline = firstChangeNanos + MAX_COALESCE_NANOS;
+            long now = System.nanoTime();
+            while (now - deadline < 0 && now - lastChangeNanos < QUIET_NANOS) {
+                long waitNanos = Math.min(deadline - now, QUIET_NANOS - (now - lastChangeNanos));
+                TimeUnit.NANOSECONDS.timedWait(changeLock, waitNanos);
+                now = System.nanoTime();
+            }
+
+            dataChanged = false;
+            lastChangeLatencyNanos = now - firstChangeNanos;
+            return lastChangeLatencyNanos;
+        }
+    }
+
+    /**
+     * Gets the time the last picked up change waited before a solver took it.
+     *
+     * @return the latency in nanoseconds
+     */
+    public long getLastChangeLatencyNanos() {
+        return lastChangeLatencyNanos;
+    }
+
+    /**
+     * Gets the current snapshot of the blackboard.
+     *
+     * @return the snapshot
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Gets the current list of cities, which cannot be modified.
+     *
+     * @return the cities
+     */
+    public List<City> getCityList() {
+        return snapshot.cityList;
+    }
+
+    /**
+     * Gets the current path, which cannot be modified.
+     *
+     * @return the clusters of cities in the order of traversal
+     */
+    public List<List<City>> getPath() {
+        return snapshot.path;
+    }
+
+    /**
+     * Replaces the path, as an edit of its own.
+     *
+     * @param path The new path
+     */
+    public void setPath(List<List<City>> path) {
+        synchronized (editLock) {
+            Snapshot current = snapshot;
+            long version = current.version + 1;
+            snapshot = new Snapshot(version, current.citiesVersion, current.cityList, Snapshot.freezePath(path), version);
+        }
+    }
+
+    /**
+     * Publishes a path calculated from a snapshot. It is dropped if cities were
+     * added or removed since that snapshot, or if the path shown was calculated
+     * from a later snapshot. Cities only moved since do not make it stale.
+     *
+     * @param path    The calculated path
+     * @param basedOn The snapshot it was calculated from
+     * @return true if the path was published
+     */
+    public boolean publishPath(List<List<City>> path, Snapshot basedOn) {
+        List<List<City>> frozen = Snapshot.freezePath(path);
+        synchronized (editLock) {
+            Snapshot current = snapshot;
+            if (basedOn.citiesVersion != current.citiesVersion || basedOn.version < current.pathVersion) {
+                return false;
+            }
+            snapshot = new Snapshot(current.version, current.citiesVersion, current.cityList, frozen,
+                    basedOn.version);
+            return true;
+        }
+    }
+
+    /**
+     * Replaces the list of cities and indexes them again.
+     *
+     * @param cityList The new list of cities
+     */
+    public void setCityList(List<City> cityList) {
+        synchronized (editLock) {
+            Snapshot current = snapshot;
+            long version = current.version + 1;
+            snapshot = new Snapshot(version, version, Snapshot.freeze(cityList), current.path, current.pathVersion);
+            cityGrid.clear();
+            for (City city : cityList) cityGrid.add(city);
+            markRestructured();
+        }
+    }
+
+    /**
+     * Adds a city to the list of cities and the index.
+     *
+     * @param city The city to add
+     */
+    public void addCity(City city) {
+        addCities(Collections.singletonList(city));
+    }
+
+    /**
+     * Adds several cities to the list of cities and the index.
+     *
+     * @param cities The cities to add
+     */
+    public void addCities(Collection<City> cities) {
+        synchronized (editLock) {
+            Snapshot current = snapshot;
+            List<City> cityList = new ArrayList<>(current.cityList);
+            cityList.addAll(cities);
+            long version = current.version + 1;
+            snapshot = new Snapshot(version, version, Collections.unmodifiableList(cityList), current.path,
+                    current.pathVersion);
+            for (City city : cities) cityGrid.add(city);
+            addedCities.addAll(cities);
+        }
+    }
+
+    /**
+     * Removes a city from the list of cities and the index.
+     *
+     * @param city The city to remove
+     */
+    public void removeCity(City city) {
+        synchronized (editLock) {
+            Snapshot current = snapshot;
+            List<City> cityList = new ArrayList<>(current.cityList);
+            if (!cityList.remove(city)) return;
+            long version = current.version + 1;
+            snapshot = new Snapshot(version, version, Collections.unmodifiableList(cityList), current.path,
+                    current.pathVersion);
+            cityGrid.remove(city);
+            markRestructured();
+        }
+    }
+
+    /**
+     * Moves a city and keeps the index up to date.
+     *
+     * @param city The city to move
+     * @param x    The new x coordinate
+     * @param y    The new y coordinate
+     */
+    public void moveCity(City city, int x, int y) {
+        synchronized (editLock) {
+            Snapshot current = snapshot;
+            snapshot = new Snapshot(current.version + 1, current.citiesVersion, current.cityList, current.path,
+                    current.pathVersion);
+            cityGrid.remove(city);
+            city.move(x, y);
+            cityGrid.add(city);
+            movedCities.add(city);
+        }
+    }
+
+    private void markRestructured() {
+        citiesRestructured = true;
+        addedCities.clear();
+        movedCities.clear();
+    }
+
+    /**
+     * Hands over the cities added and moved since the last call and forgets
+     * them, along with the snapshot they lead up to.
+     *
+     * @return the changes
+     */
+    public CityChanges takeCityChanges() {
+        synchronized (editLock) {
+            CityChanges changes = new CityChanges(snapshot, citiesRestructured,
+                    new ArrayList<>(addedCities), new ArrayList<>(movedCities));
+            citiesRestructured = false;
+            addedCities.clear();
+            movedCities.clear();
+            return changes;
+        }
+    }
+
+    /**
+     * Finds a city whose shape contains the given point.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @return the city found, null otherwise
+     */
+    public City findCityContaining(int x, int y) {
+        return cityGrid.findCityContaining(x, y);
+    }
+
+    /**
+     * Finds the cities whose shape may overlap the given area.
+     *
+     * @param area The area to look in
+     * @return the cities found
+     */
+    public List<City> findCitiesIn(Rectangle area) {
+        return cityGrid.findCitiesIn(area);
+    }
+
     public void printCities() {
         System.out.println("\nPrinting all cities");
-        System.out.println(this.cityList);
+        System.out.println(getCityList());
         System.out.println("---------------------");
     }
 
     public void printClusters() {
         System.out.println("\nPrinting clusters");
-        for (List<City> cluster : this.path) {
+        for (List<City> cluster : getPath()) {
             System.out.println(cluster);
         }
         System.out.println("---------------------");
     }
 
     public City findCityInPath(City city) {
-        for (List<City> cluster : path) {
-            for (City existingCity : cluster) {
-                if (existingCity.equals(city)) {
-                    return city;
-                }
-            }
+        synchronized (editLock) {
+            return pathIndex().contains(city) ? city : null;
         }
-        return null;
     }
 
     public List<City> getCluster(City city) {
-        for (List<City> cluster : path) {
-            for (City existingCity : cluster) {
-                if (existingCity.equals(city)) {
-                    return cluster;
-                }
-            }
+        synchronized (editLock) {
+            return pathIndex().getCluster(city);
         }
-        return null;
     }
 
     public City getPrevCity(City city) {
-        for (List<City> cluster : path) {
-            for (City existingCity : cluster) {
-                if (existingCity.nextCity != null && existingCity.nextCity.equals(city)) {
-                    return existingCity;
-                }
-            }
+        synchronized (editLock) {
+            return pathIndex().getPrevCity(city);
         }
-        return null;
     }
 
     public int getClusterIndex(City city) {
-        int index = 0;
-        for (List<City> cluster : path) {
-            for (City existingCity : cluster) {
-                if (existingCity.equals(city)) {
-                    return index;
-                }
-            }
-            index++;
+        synchronized (editLock) {
+            return pathIndex().getClusterIndex(city);
         }
-        return -1;
     }
 
+    /**
+     * Gets the index of the current path, indexing it again if it was replaced.
+     * Must be called holding the edit lock.
+     */
+    private PathIndex pathIndex() {
+        if (pathIndex == null || pathIndex.getPath() != snapshot.path) pathIndex = new PathIndex(snapshot.path);
+        return pathIndex;
+    }
+
+    /**
+     * Connects a city to the first city of another cluster, splicing the other
+     * cluster into the cluster of the current city right after it. Nothing is
+     * connected if the current city already leads somewhere, the other city is
+     * not first in its cluster, or both are in the same cluster.
+     *
+     * @param currCity  The city to connect from
+     * @param otherCity The city to connect to, first in its cluster
+     */
     public void connectTwoCities(City currCity, City otherCity) {
 
         if (currCity.nextCity != null) return;
 
-        City prevOfOtherCity = getPrevCity(otherCity);
-        if (prevOfOtherCity != null) {
-            return;
-        }
-
-        int currCityClusterIndex = getClusterIndex(currCity);
-        List<City> currCityCluster = path.get(currCityClusterIndex);
-
-        int otherCityClusterIndex = getClusterIndex(otherCity);
-        List<City> otherCityCluster = path.get(otherCityClusterIndex);
-
-        if (currCityClusterIndex == otherCityClusterIndex) {
-            return;
-        }
+        synchronized (editLock) {
+            List<List<City>> path = pathIndex().connect(currCity, otherCity);
+            if (path == null) return;
 
-        int otherCityIndex = otherCityCluster.indexOf(otherCity);
-        List<City> otherCityNewCluster = new ArrayList<>();
-        for (int i = otherCityCluster.size() - 1; i >= otherCityIndex; i--) {
-            otherCityNewCluster.add(otherCityCluster.remove(otherCityCluster.size() - 1));
+            Snapshot current = snapshot;
+            long version = current.version + 1;
+            snapshot = new Snapshot(version, current.citiesVersion, current.cityList, path, version);
         }
-        if (otherCityCluster.size() == 0) path.remove(otherCityClusterIndex);
         currCity.connectNextCity(otherCity);
-        int currCityIndex = currCityCluster.indexOf(currCity);
-        currCityCluster.addAll(currCityIndex, otherCityNewCluster);
 
-        printClusters();
+        Logger.getInstance().log("Connected " + currCity.label + " to " + otherCity.label + ".");
 
-        this.dataChanged = true;
+        markDataChanged();
     }
 
 }
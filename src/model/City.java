@@ -16,6 +16,7 @@ public class City {
     public static final int minSize = 30;
     public static final int maxSize = 80;
     public Rectangle bounds;
+    public Rectangle hitBounds;
     public String label;
     ShapeComponent cityShape;
     City nextCity;
@@ -34,6 +35,7 @@ public class City {
         this.label = label;
         this.bounds = new Rectangle(x, y, size, size);
         this.cityShape = cityShape;
+        updateHitBounds();
 
     }
 
@@ -68,6 +70,12 @@ public class City {
         bounds.x = x;
         bounds.y = y;
         cityShape.moveTo(x, y);
+        updateHitBounds();
+    }
+
+    private void updateHitBounds() {
+        Rectangle shapeBounds = cityShape != null ? cityShape.getBounds() : null;
+        this.hitBounds = shapeBounds != null ? shapeBounds : new Rectangle(bounds);
     }
 
     private Point center() {
@@ -82,7 +90,7 @@ public class City {
      * @return true if found
      */
     public boolean containsPoint(int x, int y) {
-        return this.cityShape.containsPoint(x, y);
+        return this.hitBounds.contains(x, y) && this.cityShape.containsPoint(x, y);
     }
 
     /**
@@ -140,4 +148,17 @@ public class City {
 
     }
 
+    /**
+     * Gets the colors of the city's circle, square and hollow plus shapes.
+     *
+     * @return Color[] The three colors, null for a shape the city does not have
+     */
+    public Color[] getShapeColors() {
+
+        Color[] colors = {null, null, null};
+        if (this.cityShape != null) this.cityShape.toStorageFormat(colors);
+        return colors;
+
+    }
+
 }
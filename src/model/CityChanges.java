@@ -0,0 +1,45 @@
+package model;
+
+import java.util.List;
+
+/**
+ * This class lists the cities added and moved since a solver last picked up
+ * the city data, so that it can update its tour instead of starting over,
+ * along with the snapshot of the blackboard these changes lead up to.
+ *
+ * @author amaryadav
+ * @version 1.0
+ * @since 2021-10-08
+ */
+public class CityChanges {
+
+    public final Snapshot snapshot;
+    public final boolean restructured;
+    public final List<City> added;
+    public final List<City> moved;
+
+    /**
+     * Creates the list of changes.
+     *
+     * @param snapshot     The snapshot the changes lead up to
+     * @param restructured true if cities were removed or replaced, which the lists do not cover
+     * @param added        The cities added, in the order they were added
+     * @param moved        The cities moved, each listed once
+     */
+    public CityChanges(Snapshot snapshot, boolean restructured, List<City> added, List<City> moved) {
+        this.snapshot = snapshot;
+        this.restructured = restructured;
+        this.added = added;
+        this.moved = moved;
+    }
+
+    /**
+     * Checks if there is anything to update.
+     *
+     * @return true if no city was added or moved
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && moved.isEmpty();
+    }
+
+}
@@ -0,0 +1,153 @@
+package model;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is a uniform grid over the workspace used to find cities by
+ * position without looking at every city. Each city is kept in every cell its
+ * hit box overlaps, so a point query only looks at the cities of one cell and
+ * checks their hit box before the exact shape test.
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-10-06
+ */
+public class CityGrid {
+
+    public static final int CELL_SIZE = 2 * City.maxSize;
+
+    private final Map<Long, List<City>> cells;
+
+    /**
+     * Creates an empty grid.
+     */
+    public CityGrid() {
+        this.cells = new HashMap<>();
+    }
+
+    /**
+     * Adds a city to every cell its hit box overlaps.
+     *
+     * @param city The city to add
+     */
+    public synchronized void add(City city) {
+
+        Rectangle box = city.hitBounds;
+        for (int cx = cell(box.x); cx <= cell(box.x + box.width - 1); cx++) {
+            for (int cy = cell(box.y); cy <= cell(box.y + box.height - 1); cy++) {
+                cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>()).add(city);
+            }
+        }
+
+    }
+
+    /**
+     * Removes a city from the cells its hit box overlaps. The city must
+     * not have been moved since it was added.
+     *
+     * @param city The city to remove
+     */
+    public synchronized void remove(City city) {
+
+        Rectangle box = city.hitBounds;
+        for (int cx = cell(box.x); cx <= cell(box.x + box.width - 1); cx++) {
+            for (int cy = cell(box.y); cy <= cell(box.y + box.height - 1); cy++) {
+                Long key = key(cx, cy);
+                List<City> cityList = cells.get(key);
+                if (cityList == null) continue;
+                cityList.remove(city);
+                if (cityList.isEmpty()) cells.remove(key);
+            }
+        }
+
+    }
+
+    /**
+     * Removes every city from the grid.
+     */
+    public synchronized void clear() {
+        cells.clear();
+    }
+
+    /**
+     * Finds a city whose shape contains the given point.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @return the city found, null otherwise
+     */
+    public synchronized City findCityContaining(int x, int y) {
+
+        List<City> cityList = cells.get(key(cell(x), cell(y)));
+        if (cityList == null) return null;
+
+        for (City city : cityList) {
+            if (city.containsPoint(x, y)) {
+                return city;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds the cities whose hit box intersects the given area.
+     *
+     * @param area The area to look in
+     * @return the cities found, each one once
+     */
+    public synchronized List<City> findCitiesIn(Rectangle area) {
+
+        List<City> found = new ArrayList<>();
+        if (area.isEmpty()) return found;
+
+        int minX = cell(area.x), maxX = cell(area.x + area.width - 1);
+        int minY = cell(area.y), maxY = cell(area.y + area.height - 1);
+        if ((long) (maxX - minX + 1) * (maxY - minY + 1) > cells.size()) {
+            //the area has more cells than are in use, look at the used ones instead
+            for (Map.Entry<Long, List<City>> entry : cells.entrySet()) {
+                int cx = (int) (entry.getKey() >> 32), cy = (int) (long) entry.getKey();
+                if (cx >= minX && cx <= maxX && cy >= minY && cy <= maxY) {
+                    addCitiesIn(entry.getValue(), area, cx, cy, minX, minY, found);
+                }
+            }
+            return found;
+        }
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                List<City> cityList = cells.get(key(cx, cy));
+                if (cityList != null) addCitiesIn(cityList, area, cx, cy, minX, minY, found);
+            }
+        }
+
+        return found;
+    }
+
+    private static void addCitiesIn(List<City> cityList, Rectangle area, int cx, int cy, int minX, int minY,
+                                    List<City> found) {
+
+        for (City city : cityList) {
+            Rectangle box = city.hitBounds;
+            if (!box.intersects(area)) continue;
+            //a city spans several cells, report it from the first one shared with the area
+            if (cx == Math.max(minX, cell(box.x)) && cy == Math.max(minY, cell(box.y))) {
+                found.add(city);
+            }
+        }
+
+    }
+
+    private static int cell(int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static Long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+}
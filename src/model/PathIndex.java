@@ -0,0 +1,227 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class indexes the clusters of a path by city, so the cluster, its index
+ * in the path, and the position and predecessor of a city are found in nearly
+ * constant time without scanning the path. The clusters are the sets of a
+ * union-find over the cities, where each city keeps its position relative to
+ * its parent, so appending one cluster to another re-indexes no city, while
+ * splicing one into the middle of another places the merged cluster again.
+ * The path itself is immutable, so connecting still builds the merged cluster
+ * and the new path, which takes time in the length of the two clusters plus
+ * the number of clusters.
+ *
+ * @author Amar Yadav (ID: 1219650510, ayadav42@asu.edu)
+ * @version 1.0
+ * @since 2021-10-08
+ */
+public class PathIndex {
+
+    private final Map<City, Integer> slots;
+    private final int[] parent;
+    private final int[] offset;
+    private final int[] size;
+    private final int[] clusterIndex;
+    private final int[] rootAt;
+    private final List<List<City>> clusters;
+    private List<List<City>> path;
+
+    /**
+     * Indexes a path that must not be changed afterwards.
+     *
+     * @param path The path to index
+     */
+    public PathIndex(List<List<City>> path) {
+
+        int count = 0;
+        for (List<City> cluster : path) count += cluster.size();
+
+        this.slots = new IdentityHashMap<>(count);
+        this.parent = new int[count];
+        this.offset = new int[count];
+        this.size = new int[count];
+        this.clusterIndex = new int[count];
+        this.rootAt = new int[path.size()];
+        this.clusters = new ArrayList<>(Collections.nCopies(count, null));
+        this.path = path;
+
+        int slot = 0;
+        for (int k = 0; k < path.size(); k++) {
+            List<City> cluster = path.get(k);
+            int root = slot;
+            rootAt[k] = -1;
+            for (int i = 0; i < cluster.size(); i++) {
+                slots.put(cluster.get(i), slot);
+                parent[slot] = root;
+                offset[slot] = i;
+                slot++;
+            }
+            if (!cluster.isEmpty()) {
+                size[root] = cluster.size();
+                clusterIndex[root] = k;
+                rootAt[k] = root;
+                clusters.set(root, cluster);
+            }
+        }
+
+    }
+
+    /**
+     * Gets the path this index is up to date with.
+     *
+     * @return the path
+     */
+    public List<List<City>> getPath() {
+        return path;
+    }
+
+    /**
+     * Checks if a city is in the path.
+     *
+     * @param city The city to look for
+     * @return true if the city is in one of the clusters
+     */
+    public boolean contains(City city) {
+        return slots.containsKey(city);
+    }
+
+    /**
+     * Gets the cluster a city is in.
+     *
+     * @param city The city to look for
+     * @return the cluster, null if the city is not in the path
+     */
+    public List<City> getCluster(City city) {
+        Integer slot = slots.get(city);
+        return slot == null ? null : clusters.get(find(slot));
+    }
+
+    /**
+     * Gets the position of a city in its cluster.
+     *
+     * @param city The city to look for
+     * @return the position, -1 if the city is not in the path
+     */
+    public int getPosition(City city) {
+        Integer slot = slots.get(city);
+        if (slot == null) return -1;
+        int root = find(slot);
+        return slot == root ? offset[root] : offset[slot] + offset[root];
+    }
+
+    /**
+     * Gets the city before a city in its cluster.
+     *
+     * @param city The city to look for
+     * @return the previous city, null if the city is first or not in the path
+     */
+    public City getPrevCity(City city) {
+        int position = getPosition(city);
+        return position > 0 ? getCluster(city).get(position - 1) : null;
+    }
+
+    /**
+     * Gets the index of the cluster a city is in.
+     *
+     * @param city The city to look for
+     * @return the index of the cluster in the path, -1 if the city is not in the path
+     */
+    public int getClusterIndex(City city) {
+        Integer slot = slots.get(city);
+        return slot == null ? -1 : clusterIndex[find(slot)];
+    }
+
+    /**
+     * Connects a city to the first city of another cluster by splicing that
+     * cluster in right after the city. The merged cluster takes the place of
+     * the city's cluster in the path. Appending to the last city of a cluster
+     * only joins the two sets of the union-find, while splicing into the middle
+     * places the merged cluster's cities again.
+     *
+     * @param city      The city to connect from
+     * @param firstCity The first city of the cluster to splice in
+     * @return the new path, or null if the cities are in the same cluster or
+     * the second one is not first in its cluster
+     */
+    public List<List<City>> connect(City city, City firstCity) {
+
+        Integer citySlot = slots.get(city), firstSlot = slots.get(firstCity);
+        if (citySlot == null || firstSlot == null) return null;
+
+        int head = find(citySlot), tail = find(firstSlot);
+        if (head == tail || getPosition(firstCity) != 0) return null;
+        int position = getPosition(city);
+        boolean appending = position == size[head] - 1;
+
+        int headIndex = clusterIndex[head], tailIndex = clusterIndex[tail];
+        List<City> headCluster = clusters.get(head), tailCluster = clusters.get(tail);
+        List<City> merged = new ArrayList<>(headCluster.size() + tailCluster.size());
+        merged.addAll(headCluster.subList(0, position + 1));
+        merged.addAll(tailCluster);
+        merged.addAll(headCluster.subList(position + 1, headCluster.size()));
+        merged = Collections.unmodifiableList(merged);
+
+        List<List<City>> newPath = new ArrayList<>(path.size() - 1);
+        for (List<City> cluster : path) {
+            if (cluster == headCluster) newPath.add(merged);
+            else if (cluster != tailCluster) newPath.add(cluster);
+        }
+
+        int root = head;
+        if (!appending) {
+            //the cities after the city move back too, so every city is placed under the head again
+            int rootPosition = offset[head] <= position ? offset[head] : offset[head] + size[tail];
+            for (int i = 0; i < merged.size(); i++) {
+                int slot = slots.get(merged.get(i));
+                parent[slot] = head;
+                offset[slot] = slot == head ? i : i - rootPosition;
+            }
+        } else {
+            //every city of the tail cluster moves back by the length of the head cluster
+            int tailPosition = offset[tail] + size[head];
+            if (size[head] >= size[tail]) {
+                parent[tail] = head;
+                offset[tail] = tailPosition - offset[head];
+            } else {
+                parent[head] = tail;
+                offset[head] -= tailPosition;
+                offset[tail] = tailPosition;
+                root = tail;
+            }
+        }
+        size[root] = size[head] + size[tail];
+        clusters.set(head, null);
+        clusters.set(tail, null);
+        clusters.set(root, merged);
+
+        //the merged cluster takes the place of the head, the clusters after the tail move up by one
+        rootAt[headIndex] = root;
+        System.arraycopy(rootAt, tailIndex + 1, rootAt, tailIndex, path.size() - tailIndex - 1);
+        for (int k = Math.min(headIndex, tailIndex); k < newPath.size(); k++) {
+            if (rootAt[k] >= 0) clusterIndex[rootAt[k]] = k;
+        }
+
+        path = Collections.unmodifiableList(newPath);
+        return path;
+
+    }
+
+    private int find(int slot) {
+        int up = parent[slot];
+        if (up == slot) return slot;
+
+        int root = find(up);
+        if (up != root) {
+            offset[slot] += offset[up];
+            parent[slot] = root;
+        }
+        return root;
+    }
+
+}
@@ -0,0 +1,65 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is an immutable version of the blackboard: the list of cities and
+ * the path last published for them. Every edit of the blackboard makes a new
+ * snapshot with a higher version, so readers can hold on to one without
+ * locking and without it changing under them. Cities are shared between
+ * snapshots, and dragging a city moves it in place.
+ *
+ * @author amaryadav
+ * @version 1.0
+ * @since 2021-10-08
+ */
+public class Snapshot {
+
+    public final long version;
+    public final long citiesVersion;
+    public final List<City> cityList;
+    public final List<List<City>> path;
+    public final long pathVersion;
+
+    /**
+     * Creates a snapshot from lists that must not be changed afterwards.
+     *
+     * @param version       The version of this snapshot
+     * @param citiesVersion The version cities were last added or removed in
+     * @param cityList      The unmodifiable list of cities
+     * @param path          The unmodifiable path
+     * @param pathVersion   The version the path was calculated for
+     */
+    Snapshot(long version, long citiesVersion, List<City> cityList, List<List<City>> path, long pathVersion) {
+        this.version = version;
+        this.citiesVersion = citiesVersion;
+        this.cityList = cityList;
+        this.path = path;
+        this.pathVersion = pathVersion;
+    }
+
+    /**
+     * Makes an unmodifiable copy of a list of cities.
+     *
+     * @param cityList The list to copy
+     * @return the copy
+     */
+    static List<City> freeze(List<City> cityList) {
+        return Collections.unmodifiableList(new ArrayList<>(cityList));
+    }
+
+    /**
+     * Makes an unmodifiable copy of a path, cluster lists included.
+     *
+     * @param path The path to copy
+     * @return the copy
+     */
+    static List<List<City>> freezePath(List<List<City>> path) {
+        List<List<City>> frozen = new ArrayList<>(path.size());
+        for (List<City> cluster : path) frozen.add(freeze(cluster));
+        return Collections.unmodifiableList(frozen);
+    }
+
+}
@@ -59,11 +59,20 @@ public class Circle extends ShapeComponent {
         int x_center = x_corner + (int) radius;
         int y_center = y_corner + (int) radius;
 
-        double distanceFromCenter = Math.sqrt(
-                (Math.pow((x - x_center), 2) + Math.pow((y - y_center), 2))
-        );
+        int dx = x - x_center;
+        int dy = y - y_center;
 
-        return distanceFromCenter <= radius;
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    /**
+     * Gets the box around the circle
+     *
+     * @return the bounding box
+     */
+    @Override
+    public Rectangle getBounds() {
+        return new Rectangle(x_corner, y_corner, diameter + 1, diameter + 1);
     }
 
     /**
@@ -89,4 +98,15 @@ public class Circle extends ShapeComponent {
         arr[0] = String.valueOf(this.color.getRGB());
     }
 
+    /**
+     * Helps convert the shape to a storage friendly format
+     * without going through text
+     *
+     * @param arr The array for setting color at
+     */
+    @Override
+    public void toStorageFormat(Color[] arr) {
+        arr[0] = this.color;
+    }
+
 }
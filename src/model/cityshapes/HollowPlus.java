@@ -90,6 +90,20 @@ public class HollowPlus extends ShapeDecorator {
         return super.containsPoint(x, y) || doesAnyBoxContainPoint(x, y);
     }
 
+    /**
+     * Gets the box around the four boxes and the inner shape
+     *
+     * @return the bounding box
+     */
+    @Override
+    public Rectangle getBounds() {
+        Rectangle box = super.getBounds();
+        for (Rectangle r : this.bounds) {
+            box = box == null ? new Rectangle(r) : box.union(r);
+        }
+        return box;
+    }
+
     /**
      * Draws the hollow plus shape
      *
@@ -116,4 +130,16 @@ public class HollowPlus extends ShapeDecorator {
         super.toStorageFormat(arr);
         arr[2] = String.valueOf(this.color.getRGB());
     }
+
+    /**
+     * Helps convert the shape to a storage friendly format
+     * without going through text
+     *
+     * @param arr The array for setting color at
+     */
+    @Override
+    public void toStorageFormat(Color[] arr) {
+        super.toStorageFormat(arr);
+        arr[2] = this.color;
+    }
 }
@@ -30,6 +30,14 @@ public abstract class ShapeComponent {
      */
     public abstract boolean containsPoint(int x, int y);
 
+    /**
+     * Each child can be asked for the box enclosing every point
+     * it contains using this method
+     *
+     * @return the bounding box
+     */
+    public abstract Rectangle getBounds();
+
     /**
      * Each child should be able to draw itself
      *
@@ -44,4 +52,12 @@ public abstract class ShapeComponent {
      */
     public abstract void toStorageFormat(String[] arr);
 
+    /**
+     * Helps convert the shape to a storage friendly format
+     * without going through text
+     *
+     * @param arr The array for setting color at
+     */
+    public abstract void toStorageFormat(Color[] arr);
+
 }
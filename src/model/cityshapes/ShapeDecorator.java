@@ -58,6 +58,17 @@ public abstract class ShapeDecorator extends ShapeComponent {
         return shape != null && shape.containsPoint(x, y);
     }
 
+    /**
+     * Each child can be asked for its bounding box
+     * using this method, includes inner shape's box.
+     *
+     * @return the bounding box, null if there is no inner shape
+     */
+    @Override
+    public Rectangle getBounds(){
+        return shape != null ? shape.getBounds() : null;
+    }
+
     /**
      * Helps convert the shape to a storage friendly format,
      * converts inner shape first.
@@ -68,4 +79,15 @@ public abstract class ShapeDecorator extends ShapeComponent {
     public void toStorageFormat(String[] arr) {
         if(shape != null) shape.toStorageFormat(arr);
     }
+
+    /**
+     * Helps convert the shape to a storage friendly format
+     * without going through text, converts inner shape first.
+     *
+     * @param arr The array for setting color at
+     */
+    @Override
+    public void toStorageFormat(Color[] arr) {
+        if(shape != null) shape.toStorageFormat(arr);
+    }
 }
@@ -62,6 +62,17 @@ public class Square extends ShapeDecorator {
         return super.containsPoint(x, y) || this.bounds.contains(x, y);
     }
 
+    /**
+     * Gets the box around the square and its inner shape
+     *
+     * @return the bounding box
+     */
+    @Override
+    public Rectangle getBounds() {
+        Rectangle inner = super.getBounds();
+        return inner == null ? new Rectangle(this.bounds) : inner.union(this.bounds);
+    }
+
     /**
      * Draws the square shape
      *
@@ -86,4 +97,16 @@ public class Square extends ShapeDecorator {
         super.toStorageFormat(arr);
         arr[1] = String.valueOf(this.color.getRGB());
     }
+
+    /**
+     * Helps convert the shape to a storage friendly format
+     * without going through text
+     *
+     * @param arr The array for setting color at
+     */
+    @Override
+    public void toStorageFormat(Color[] arr) {
+        super.toStorageFormat(arr);
+        arr[1] = this.color;
+    }
 }
@@ -1,22 +1,25 @@
 package view;
 
 import controller.Logger;
+import controller.io.TSPLibInstance;
+import controller.io.WorkspaceData;
+import controller.io.WorkspaceFiles;
 import model.Blackboard;
-import model.City;
+import model.Snapshot;
 import controller.tsp.*;
-import sun.rmi.runtime.Log;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * This class orchestrates various classes and functions to calculate the shortest hamiltonian path
@@ -35,8 +38,10 @@ public class App extends JFrame implements ActionListener {
     private final Workspace workspace;
     private final JMenu connectionsMenu;
     private final JMenu actionMenu;
+    private final ExecutorService tspExecutor;
     private TSPAlgorithm tspAlgorithm;
-    private Thread tspThread;
+    private Future<?> tspTask;
+    private TSPLibInstance source;
     public static JLabel status;
 
     /**
@@ -50,6 +55,12 @@ public class App extends JFrame implements ActionListener {
         int height = 900;
         setBounds(50, 50, width, height);
 
+        tspExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tsp-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+
         JMenuBar menuBar = new JMenuBar();
 
         JMenu fileMenu = new JMenu("File");
@@ -76,10 +87,26 @@ public class App extends JFrame implements ActionListener {
         tspPro.addActionListener(this);
         connectionsMenu.add(tspPro);
 
+        JMenuItem tspProParallel = new JMenuItem(TSPPro.parallelName);
+        tspProParallel.addActionListener(this);
+        connectionsMenu.add(tspProParallel);
+
         JMenuItem clusters = new JMenuItem(TSPCluster.name);
         clusters.addActionListener(this);
         connectionsMenu.add(clusters);
 
+        JMenuItem clustersStitched = new JMenuItem(TSPCluster.stitchedName);
+        clustersStitched.addActionListener(this);
+        connectionsMenu.add(clustersStitched);
+
+        JMenuItem twoOpt = new JMenuItem(TSPTwoOpt.name);
+        twoOpt.addActionListener(this);
+        connectionsMenu.add(twoOpt);
+
+        JMenuItem linKernighan = new JMenuItem(TSPLinKernighan.name);
+        linKernighan.addActionListener(this);
+        connectionsMenu.add(linKernighan);
+
         JMenuItem userConnect = new JMenuItem(TSPUserConnect.name);
         userConnect.addActionListener(this);
         connectionsMenu.add(userConnect);
@@ -116,6 +143,8 @@ public class App extends JFrame implements ActionListener {
         status = new JLabel();
         status.setSize(workspaceWidth, 100);
         add(status, BorderLayout.SOUTH);
+        //the workspace saves and the solvers log from threads of their own
+        Logger.getInstance().setOutput(message -> SwingUtilities.invokeLater(() -> status.setText(message)));
 
         setTspAlgorithm(TSPNearestNbr.name);
 
@@ -141,12 +170,24 @@ public class App extends JFrame implements ActionListener {
             case TSP_PRO:
                 retVal = TSPPro.name;
                 break;
+            case TSP_PRO_PARALLEL:
+                retVal = TSPPro.parallelName;
+                break;
             case TSP_NEAREST_NBR:
                 retVal = TSPNearestNbr.name;
                 break;
             case TSP_CLUSTER:
                 retVal = TSPCluster.name;
                 break;
+            case TSP_CLUSTER_STITCHED:
+                retVal = TSPCluster.stitchedName;
+                break;
+            case TSP_TWO_OPT:
+                retVal = TSPTwoOpt.name;
+                break;
+            case TSP_LIN_KERNIGHAN:
+                retVal = TSPLinKernighan.name;
+                break;
             default:
                 retVal = TSPUserConnect.name;
                 break;
@@ -174,9 +215,21 @@ public class App extends JFrame implements ActionListener {
             case TSPPro.name:
                 tspAlgorithm = new TSPPro();
                 break;
+            case TSPPro.parallelName:
+                tspAlgorithm = new TSPPro(TSPPro.parallelReplicas());
+                break;
             case TSPCluster.name:
                 tspAlgorithm = new TSPCluster();
                 break;
+            case TSPCluster.stitchedName:
+                tspAlgorithm = new TSPCluster(true);
+                break;
+            case TSPTwoOpt.name:
+                tspAlgorithm = new TSPTwoOpt();
+                break;
+            case TSPLinKernighan.name:
+                tspAlgorithm = new TSPLinKernighan();
+                break;
             default:
                 tspAlgorithm = new TSPUserConnect();
         }
@@ -187,20 +240,20 @@ public class App extends JFrame implements ActionListener {
 
     private void setTspAlgorithm(TSPAlgorithm tspAlgorithm) {
 
-        if (this.tspThread != null && !this.tspThread.isInterrupted()) {
-            this.tspThread.stop();
-        }
-
         if (this.tspAlgorithm != null) {
+            this.tspAlgorithm.stop();
             this.tspAlgorithm.deleteObserver(this.workspace);
         }
 
+        if (this.tspTask != null) {
+            this.tspTask.cancel(true); //wakes the solver up if it is waiting for a change
+        }
+
         this.tspAlgorithm = tspAlgorithm;
         Logger.getInstance().log("Setting the new TSPAlgorithm type=" + this.tspAlgorithm.type + ", name=" + getTspName(this.tspAlgorithm));
         this.tspAlgorithm.addObserver(workspace);
-        this.tspThread = new Thread(tspAlgorithm); //Polling for resources, NIO.2
-        this.tspThread.start();
-        Blackboard.getInstance().dataChanged = true;
+        this.tspTask = this.tspExecutor.submit(tspAlgorithm);
+        Blackboard.getInstance().markDataChanged();
 
         if (this.tspAlgorithm.type == TSPTypes.USER_CONNECT) {
 
@@ -233,9 +286,8 @@ public class App extends JFrame implements ActionListener {
      */
     public void disableTSPConnectionMenuItems() {
         for (Component connectionMenuItem : this.connectionsMenu.getMenuComponents()) {
-            connectionMenuItem.setEnabled(false);
+            connectionMenuItem.setEnabled(TSPUserConnect.name.equals(((JMenuItem) connectionMenuItem).getText()));
         }
-        this.connectionsMenu.getMenuComponent(3).setEnabled(true);
     }
 
     /**
@@ -271,7 +323,9 @@ public class App extends JFrame implements ActionListener {
         try {
             switch (item.getText()) {
                 case "New/Reset":
-                    Blackboard.getInstance().path = new ArrayList<>();
+                    Blackboard.getInstance().setPath(new ArrayList<>());
+                    TSPDistanceOracle.getInstance().setMetric(DistanceMetric.EUCLIDEAN);
+                    source = null;
                     workspace.resetCityList();
                     break;
                 case "Open":
@@ -287,9 +341,21 @@ public class App extends JFrame implements ActionListener {
                 case TSPPro.name:
                     setTspAlgorithm(TSPPro.name);
                     break;
+                case TSPPro.parallelName:
+                    setTspAlgorithm(TSPPro.parallelName);
+                    break;
                 case TSPCluster.name:
                     setTspAlgorithm(TSPCluster.name);
                     break;
+                case TSPCluster.stitchedName:
+                    setTspAlgorithm(TSPCluster.stitchedName);
+                    break;
+                case TSPTwoOpt.name:
+                    setTspAlgorithm(TSPTwoOpt.name);
+                    break;
+                case TSPLinKernighan.name:
+                    setTspAlgorithm(TSPLinKernighan.name);
+                    break;
                 case TSPUserConnect.name:
                     setTspAlgorithm(TSPUserConnect.name);
                     break;
@@ -339,69 +405,21 @@ public class App extends JFrame implements ActionListener {
         if (filepath.isEmpty()) {
             showDialog("No file selected, please select a file to continue.");
             return;
-        } else if (!filepath.contains(".txt")) {
-            showDialog("Please select a .txt file to continue.");
+        } else if (!WorkspaceFiles.isWorkspace(filepath)) {
+            showDialog("Please select a .txt, .tspw or .tsp file to continue.");
             return;
         }
 
-        Logger.getInstance().log("Reading txt file: " + filepath);
-
-        List<City> cities = new ArrayList<>();
-        List<List<City>> path = new ArrayList<>();
-        BufferedReader br = new BufferedReader(new FileReader(filepath));
-
-        String tspAlgo = br.readLine(); //first line contains the algo
-
-        int noOfCities = 0;
-        String line = br.readLine();
-
-        while (line != null) {
-
-            List<City> cluster = new ArrayList<>();
-
-            while (!line.equals("$$")) {
-                String[] arr = line.split(",");
-                String cityName = arr[0];
-                int x = Integer.parseInt(arr[1]);
-                int y = Integer.parseInt(arr[2]);
-                String size = arr[3];
-
-                boolean[] shapes = {false, false, false};
-                Color[] colors = {null, null, null};
-                if (arr[4] != null && !arr[4].isEmpty() && !arr[4].equals("$")) {
-                    shapes[0] = true;
-                    colors[0] = new Color(Integer.parseInt(arr[4]));
-                }
-                if (arr[5] != null && !arr[5].isEmpty() && !arr[5].equals("$")) {
-                    shapes[1] = true;
-                    colors[1] = new Color(Integer.parseInt(arr[5]));
-                }
-                if (arr[6] != null && !arr[6].isEmpty() && !arr[6].equals("$")) {
-                    shapes[2] = true;
-                    colors[2] = new Color(Integer.parseInt(arr[6]));
-                }
-
-                City newCity = this.workspace.createNewCityFromInput(x, y, cityName, size, shapes, colors);
-                cities.add(newCity);
-                cluster.add(newCity);
-                noOfCities++;
-
-                line = br.readLine();
-            }
-
-            path.add(cluster);
+        Logger.getInstance().log("Reading workspace file: " + filepath);
 
-            line = br.readLine();
-        }
-
-        br.close();
-        Logger.getInstance().log("Read file with \" + noOfCities + \" cities.");
+        WorkspaceData data = WorkspaceFiles.read(Paths.get(filepath));
+        Logger.getInstance().log("Read file with " + data.cities.size() + " cities.");
 
-        Blackboard.getInstance().path = path;
-        workspace.updateCityList(cities);
-        Blackboard.getInstance().printCities();
-        Blackboard.getInstance().printClusters();
-        setTspAlgorithm(tspAlgo);
+        Blackboard.getInstance().setPath(data.path);
+        TSPDistanceOracle.getInstance().setMetric(data.metric);
+        source = data.source;
+        workspace.updateCityList(data.cities);
+        setTspAlgorithm(data.algorithm != null ? data.algorithm : getTspName(this.tspAlgorithm));
 
     }
 
@@ -417,12 +435,24 @@ public class App extends JFrame implements ActionListener {
                 "Workspace0"
         );
 
-        String data = getTspName(this.tspAlgorithm) + "\n";
-        data += workspace.getCitiesInTxtFriendlyFormat();
-        FileWriter myWriter = new FileWriter(filename + ".txt");
-        myWriter.write(data);
-        myWriter.close();
-        Logger.getInstance().log("Successfully wrote to the file.");
+        if (filename == null) return;
+        if (!WorkspaceFiles.isWritable(filename)) filename += ".txt";
+
+        //the snapshot does not change, so it can be written while the user carries on
+        String tspName = getTspName(this.tspAlgorithm);
+        Snapshot snapshot = Blackboard.getInstance().getSnapshot();
+        DistanceMetric metric = TSPDistanceOracle.getInstance().getMetric();
+        TSPLibInstance source = this.source;
+        Path file = Paths.get(filename);
+        Thread saver = new Thread(() -> {
+            try {
+                WorkspaceFiles.write(file, WorkspaceData.of(tspName, snapshot, metric, source));
+                Logger.getInstance().log("Successfully wrote to the file.");
+            } catch (IOException e) {
+                Logger.getInstance().log("Could not write to the file: " + e.getMessage());
+            }
+        }, "workspace-save");
+        saver.start();
 
     }
 
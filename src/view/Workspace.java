@@ -127,33 +127,8 @@ public class Workspace extends JPanel implements Observer, MouseListener, MouseM
      * @param cityList The new list of cities
      */
     public void updateCityList(List<City> cityList) {
-        Blackboard.getInstance().cityList = cityList;
-        Blackboard.getInstance().dataChanged = true;
-    }
-
-    /**
-     * This method prepares the cities to be saved in a text friendly format.
-     *
-     * @return String The string containing the list of cities in text format
-     */
-    public String getCitiesInTxtFriendlyFormat() {
-
-        Logger.getInstance().log("Converting cities to storage friendly text format.");
-
-        String[] cities = new String[Blackboard.getInstance().cityList.size() + Blackboard.getInstance().path.size()];
-        int index = 0;
-
-        for (List<City> cluster : Blackboard.getInstance().path) {
-            for (City city : cluster) {
-                cities[index++] = city.toStorageFormat();
-            }
-            if (index < cities.length) {
-                cities[index] = "$$";
-                index++;
-            }
-        }
-
-        return String.join("\n", cities);
+        Blackboard.getInstance().setCityList(cityList);
+        Blackboard.getInstance().markDataChanged();
     }
 
     /**
@@ -168,7 +143,7 @@ public class Workspace extends JPanel implements Observer, MouseListener, MouseM
         Graphics2D g2D = (Graphics2D) g;
         g2D.setColor(Color.BLUE);
 
-        for (List<City> cluster : Blackboard.getInstance().path) {
+        for (List<City> cluster : Blackboard.getInstance().getPath()) {
             City prev = null;
 
             for (City curr : cluster) {
@@ -246,7 +221,7 @@ public class Workspace extends JPanel implements Observer, MouseListener, MouseM
             };
 
 
-            for (City city : Blackboard.getInstance().cityList) {
+            for (City city : Blackboard.getInstance().getCityList()) {
                 if (city.label.equals(cityName.getText())) {
                     Logger.getInstance().log("City already exists.");
                     return null;
@@ -349,14 +324,7 @@ public class Workspace extends JPanel implements Observer, MouseListener, MouseM
     }
 
     private City findCityContaining(int x, int y) {
-
-        for (City city : Blackboard.getInstance().cityList) {
-            if (city.containsPoint(x, y)) {
-                return city;
-            }
-        }
-
-        return null;
+        return Blackboard.getInstance().findCityContaining(x, y);
     }
 
     /**
@@ -376,8 +344,8 @@ public class Workspace extends JPanel implements Observer, MouseListener, MouseM
             if (selectedCity == null) {
                 City newCity = takeNewCityInput(e.getX(), e.getY());
                 if (newCity != null) {
-                    Blackboard.getInstance().cityList.add(newCity);
-                    Blackboard.getInstance().dataChanged = true;
+                    Blackboard.getInstance().addCity(newCity);
+                    Blackboard.getInstance().markDataChanged();
                     Logger.getInstance().log("Added new city at x=" + e.getX() + ", y=" + e.getY());
                 }
 
@@ -406,8 +374,8 @@ public class Workspace extends JPanel implements Observer, MouseListener, MouseM
     public void mouseDragged(MouseEvent e) {
 
         if (selectedCity != null && this.canMoveCities) {
-            selectedCity.move(e.getX(), e.getY());
-            Blackboard.getInstance().dataChanged = true;
+            Blackboard.getInstance().moveCity(selectedCity, e.getX(), e.getY());
+            Blackboard.getInstance().markDataChanged();
         }
 
     }
@@ -422,7 +390,7 @@ public class Workspace extends JPanel implements Observer, MouseListener, MouseM
 
         if (selectedCity != null) {
             if (this.canMoveCities) {
-                selectedCity.move(e.getX(), e.getY());
+                Blackboard.getInstance().moveCity(selectedCity, e.getX(), e.getY());
             } else { //this.canConnectCities
                 City nextCity = findCityContaining(e.getX(), e.getY());
                 if (nextCity != null) {
@@ -430,7 +398,7 @@ public class Workspace extends JPanel implements Observer, MouseListener, MouseM
                 }
             }
 
-            Blackboard.getInstance().dataChanged = true;
+            Blackboard.getInstance().markDataChanged();
             selectedCity = null; //this is a follow up of mouse-released
         }
 